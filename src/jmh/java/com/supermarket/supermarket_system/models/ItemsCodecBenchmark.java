@@ -0,0 +1,109 @@
+package com.supermarket.supermarket_system.models;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {itemId: qty} JSON of the items column, written and read three ways:
+ *   - jackson: ObjectMapper with a TypeReference into HashMap<Long, Integer>,
+ *     as ItemsMapConverter did originally
+ *   - stream: Jackson's token stream straight into ItemQuantityMap, kept in
+ *     the converter as the fallback for unusual rows
+ *   - codec: ItemsJsonCodec, the converter's normal path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ItemsCodecBenchmark {
+
+    private static final TypeReference<Map<Long, Integer>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"1", "10", "100", "1000"})
+    int lines;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private Map<Long, Integer> hashMap;
+    private ItemQuantityMap quantityMap;
+    private String json;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        hashMap = new HashMap<>();
+        quantityMap = new ItemQuantityMap();
+        random.longs(1, 100_000).distinct().limit(lines).forEach(itemId -> {
+            int quantity = 1 + random.nextInt(20);
+            hashMap.put(itemId, quantity);
+            quantityMap.putQuantity(itemId, quantity);
+        });
+        json = mapper.writeValueAsString(hashMap);
+    }
+
+    // ----------------------
+    // ENCODE
+    // ----------------------
+
+    @Benchmark
+    public String encodeJackson() throws IOException {
+        return mapper.writeValueAsString(hashMap);
+    }
+
+    @Benchmark
+    public String encodeCodec() {
+        return ItemsJsonCodec.encode(quantityMap);
+    }
+
+    // ----------------------
+    // DECODE
+    // ----------------------
+
+    @Benchmark
+    public Map<Long, Integer> decodeJackson() throws IOException {
+        return mapper.readValue(json, MAP_TYPE);
+    }
+
+    @Benchmark
+    public ItemQuantityMap decodeStream() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            parser.nextToken();
+            ItemQuantityMap items = new ItemQuantityMap();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                long itemId = Long.parseLong(parser.currentName());
+                parser.nextToken();
+                items.putQuantity(itemId, parser.getValueAsInt());
+            }
+            return items;
+        }
+    }
+
+    @Benchmark
+    public ItemQuantityMap decodeCodec() {
+        return ItemsJsonCodec.decode(json);
+    }
+}
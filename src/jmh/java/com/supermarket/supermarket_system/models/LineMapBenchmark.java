@@ -0,0 +1,117 @@
+package com.supermarket.supermarket_system.models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart/order line maps: ItemQuantityMap against the HashMap<Long, Integer> it
+ * replaced, for building a map line by line, looking every line up, and
+ * walking all lines (as pricing and checkout do).
+ *
+ * Item ids are random values below 100 000, like real auto-increment ids,
+ * so most of them fall outside the Long/Integer box caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class LineMapBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int lines;
+
+    private long[] itemIds;
+    private int[] quantities;
+
+    private Map<Long, Integer> hashMap;
+    private ItemQuantityMap quantityMap;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        itemIds = random.longs(1, 100_000).distinct().limit(lines).toArray();
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            quantities[i] = 1 + random.nextInt(20);
+        }
+        hashMap = buildHashMap();
+        quantityMap = buildQuantityMap();
+    }
+
+    // ----------------------
+    // BUILD
+    // ----------------------
+
+    @Benchmark
+    public Map<Long, Integer> buildHashMap() {
+        Map<Long, Integer> map = new HashMap<>();
+        for (int i = 0; i < itemIds.length; i++) {
+            map.put(itemIds[i], quantities[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public ItemQuantityMap buildQuantityMap() {
+        ItemQuantityMap map = new ItemQuantityMap();
+        for (int i = 0; i < itemIds.length; i++) {
+            map.putQuantity(itemIds[i], quantities[i]);
+        }
+        return map;
+    }
+
+    // ----------------------
+    // LOOKUP
+    // ----------------------
+
+    @Benchmark
+    public long lookupHashMap() {
+        long total = 0;
+        for (long itemId : itemIds) {
+            total += hashMap.get(itemId);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long lookupQuantityMap() {
+        long total = 0;
+        for (long itemId : itemIds) {
+            total += quantityMap.getQuantity(itemId);
+        }
+        return total;
+    }
+
+    // ----------------------
+    // ITERATION
+    // ----------------------
+
+    @Benchmark
+    public void iterateHashMap(Blackhole blackhole) {
+        for (Map.Entry<Long, Integer> line : hashMap.entrySet()) {
+            blackhole.consume(line.getKey() * line.getValue());
+        }
+    }
+
+    @Benchmark
+    public void iterateQuantityMap(Blackhole blackhole) {
+        quantityMap.forEachLine((itemId, quantity) -> blackhole.consume(itemId * quantity));
+    }
+}
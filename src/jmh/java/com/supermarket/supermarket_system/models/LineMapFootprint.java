@@ -0,0 +1,40 @@
+package com.supermarket.supermarket_system.models;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Retained heap size of one line map, ItemQuantityMap against HashMap<Long, Integer>,
+ * measured with JOL over the whole object graph (boxes, nodes, tables and arrays).
+ *
+ * Run: mvn -Pbenchmarks test-compile exec:exec
+ *          -Djmh.main=com.supermarket.supermarket_system.models.LineMapFootprint
+ */
+public final class LineMapFootprint {
+
+    private LineMapFootprint() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%6s  %14s  %18s%n", "lines", "HashMap bytes", "ItemQuantityMap bytes");
+        for (int lines : new int[]{1, 10, 100, 1000}) {
+            Random random = new Random(42);
+            long[] itemIds = random.longs(1, 100_000).distinct().limit(lines).toArray();
+
+            Map<Long, Integer> hashMap = new HashMap<>();
+            ItemQuantityMap quantityMap = new ItemQuantityMap();
+            for (long itemId : itemIds) {
+                int quantity = 1 + random.nextInt(20);
+                hashMap.put(itemId, quantity);
+                quantityMap.putQuantity(itemId, quantity);
+            }
+
+            System.out.printf("%6d  %14d  %18d%n", lines,
+                    GraphLayout.parseInstance(hashMap).totalSize(),
+                    GraphLayout.parseInstance(quantityMap).totalSize());
+        }
+    }
+}
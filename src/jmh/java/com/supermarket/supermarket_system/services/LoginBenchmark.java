@@ -0,0 +1,106 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import com.supermarket.supermarket_system.security.LoginAttemptLimiter;
+import com.supermarket.supermarket_system.utils.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * The login path at the BCrypt costs calibration usually picks between:
+ *   - bcryptMatches: one password check on the calling thread, the floor for a login
+ *   - login: UserService.loginUser end to end (limiter, check on the hashing
+ *     pool, JWT), with the user repository stubbed out
+ *   - loginUpgradingHash: the same login for a user whose stored hash is one
+ *     cost below the current one, so each login also re-hashes and saves
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String EMAIL = "shopper@example.com";
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final String UPGRADE_EMAIL = "legacy@example.com";
+
+    @Param({"10", "11", "12"})
+    int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String currentHash;
+    private PasswordHashingService passwordHashing;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        currentHash = encoder.encode(PASSWORD);
+        String outdatedHash = new BCryptPasswordEncoder(cost - 1).encode(PASSWORD);
+
+        // Stub only: nothing is recorded per call, so the mock does not grow during a run
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user(EMAIL, currentHash)));
+        // A fresh user each time, so the saved upgrade never sticks
+        when(userRepository.findByEmail(UPGRADE_EMAIL)).thenAnswer(invocation ->
+                Optional.of(user(UPGRADE_EMAIL, outdatedHash)));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtUtils", new JwtUtils());
+
+        passwordHashing = new PasswordHashingService(encoder, 1, 100, 60_000);
+        // Limits high enough that the benchmark is never throttled
+        LoginAttemptLimiter loginLimiter = new LoginAttemptLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, 60, 100_000);
+        userService = new UserService(userRepository, jwtService, passwordHashing, loginLimiter);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashing.shutdown();
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return encoder.matches(PASSWORD, currentHash);
+    }
+
+    @Benchmark
+    public String login() {
+        return userService.loginUser(EMAIL, PASSWORD, "203.0.113.5");
+    }
+
+    @Benchmark
+    public String loginUpgradingHash() {
+        return userService.loginUser(UPGRADE_EMAIL, PASSWORD, "203.0.113.5");
+    }
+
+    private static User user(String email, String passwordHash) {
+        User user = new User("Shopper", email, passwordHash, "123", "Street", "USER");
+        ReflectionTestUtils.setField(user, "id", 42L);
+        return user;
+    }
+}
@@ -0,0 +1,78 @@
+package com.supermarket.supermarket_system.utils;
+
+import com.supermarket.supermarket_system.security.JwtPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling per authenticated request:
+ *   - rebuiltThreeParses: what JwtAuthFilter used to do, validateToken, getEmail
+ *     and getRole, each building a new HMAC key and parser
+ *   - sharedThreeParses: the same three calls on the shared key and parser
+ *   - verifyOnce: JwtUtils.verify, one parse for everything the filter needs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private JwtUtils jwtUtils;
+    private byte[] secret;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtils = new JwtUtils();
+        // Read rather than copied, so the benchmark always signs with the real key
+        Field secretKey = JwtUtils.class.getDeclaredField("SECRET_KEY");
+        secretKey.setAccessible(true);
+        secret = ((String) secretKey.get(null)).getBytes(StandardCharsets.UTF_8);
+        token = jwtUtils.generateToken("shopper@example.com", "USER", 42L);
+    }
+
+    @Benchmark
+    public void rebuiltThreeParses(Blackhole blackhole) {
+        blackhole.consume(parseWithNewParser());
+        blackhole.consume(parseWithNewParser().getBody().getSubject());
+        blackhole.consume(parseWithNewParser().getBody().get("role", String.class));
+    }
+
+    @Benchmark
+    public void sharedThreeParses(Blackhole blackhole) {
+        blackhole.consume(jwtUtils.validateToken(token));
+        blackhole.consume(jwtUtils.getEmail(token));
+        blackhole.consume(jwtUtils.getRole(token));
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyOnce() {
+        return jwtUtils.verify(token);
+    }
+
+    private Jws<Claims> parseWithNewParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret))
+                .build()
+                .parseClaimsJws(token);
+    }
+}
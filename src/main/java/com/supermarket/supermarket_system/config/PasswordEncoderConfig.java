@@ -0,0 +1,75 @@
+package com.supermarket.supermarket_system.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Provides the BCrypt encoder and chooses its cost (log2 rounds).
+ *
+ * With supermarket.security.bcrypt.strength=0 the cost is calibrated at startup:
+ * each candidate from min-strength upwards is timed on this machine, and the
+ * highest one whose hash stays within max-hash-ms is used. Since every step
+ * doubles the work, calibration stops at the first cost over budget.
+ * A positive strength skips calibration and is used as-is.
+ * The timing of each candidate and the chosen cost are logged at INFO.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES_PER_COST = 3;
+
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder(
+            @Value("${supermarket.security.bcrypt.strength:0}") int strength,
+            @Value("${supermarket.security.bcrypt.max-hash-ms:250}") long maxHashMillis,
+            @Value("${supermarket.security.bcrypt.min-strength:10}") int minStrength,
+            @Value("${supermarket.security.bcrypt.max-strength:14}") int maxStrength) {
+        if (strength > 0) {
+            return new BCryptPasswordEncoder(strength);
+        }
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalStateException("BCrypt strength bounds must satisfy 4 <= min-strength <= max-strength <= 31");
+        }
+        return new BCryptPasswordEncoder(calibrate(minStrength, maxStrength, maxHashMillis));
+    }
+
+    private static int calibrate(int minStrength, int maxStrength, long maxHashMillis) {
+        // Warm up so class loading and JIT don't count against the first candidate
+        new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+
+        int chosen = minStrength;
+        for (int cost = minStrength; cost <= maxStrength; cost++) {
+            long millis = fastestHashMillis(cost, maxHashMillis);
+            log.info("BCrypt calibration: cost {} took {} ms", cost, millis);
+            if (millis > maxHashMillis) {
+                break;
+            }
+            chosen = cost;
+        }
+        // The floor applies even if it is over budget: never go below min-strength
+        log.info("BCrypt calibration: using cost {} (budget {} ms)", chosen, maxHashMillis);
+        return chosen;
+    }
+
+    // Fastest of up to SAMPLES_PER_COST runs, to damp noise from other startup work
+    private static long fastestHashMillis(int cost, long maxHashMillis) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES_PER_COST; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+            if (best <= maxHashMillis || best > 2 * maxHashMillis) {
+                break; // already decided either way
+            }
+        }
+        return best;
+    }
+}
@@ -42,7 +42,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/items", "/items/**").permitAll()
 
                         // Only ADMIN can create, update, or delete items
-                        .requestMatchers(HttpMethod.POST, "/items").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/items", "/items/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/items/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/items/**").hasRole("ADMIN")
 
@@ -60,11 +60,17 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/orders/user/**").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/orders/*/cancel").authenticated()
 
-                        // Only ADMIN can view all orders, filter by status, and update order status
+                        // Only ADMIN can view all orders, filter by status, export, and update order status
                         .requestMatchers(HttpMethod.GET, "/orders/all").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/orders/status/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/orders/export").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PATCH, "/orders/*/status").hasRole("ADMIN")
 
+                        // ============================================
+                        // ADMIN ENDPOINTS
+                        // ============================================
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
+
                         // All other requests must be authenticated
                         .anyRequest().authenticated()
                 )
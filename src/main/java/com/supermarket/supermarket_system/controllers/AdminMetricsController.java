@@ -0,0 +1,58 @@
+package com.supermarket.supermarket_system.controllers;
+
+import com.supermarket.supermarket_system.security.LoginAttemptLimiter;
+import com.supermarket.supermarket_system.security.VerifiedTokenCache;
+import com.supermarket.supermarket_system.services.CartWriteBuffer;
+import com.supermarket.supermarket_system.services.CheckoutPipeline;
+import com.supermarket.supermarket_system.services.ItemService;
+import com.supermarket.supermarket_system.services.OptimisticRetry;
+import com.supermarket.supermarket_system.services.PasswordHashingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Runtime counters for sizing caches and pools (ADMIN ONLY - enforced by SecurityConfig)
+@RestController
+@RequestMapping("/admin/metrics")
+public class AdminMetricsController {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    private LoginAttemptLimiter loginLimiter;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private CheckoutPipeline checkoutPipeline;
+
+    @Autowired
+    private CartWriteBuffer cartWriteBuffer;
+
+    @GetMapping
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("itemCache", itemService.cacheStats());
+        metrics.put("searchIndex", itemService.searchIndexStats());
+        metrics.put("suggest", itemService.suggestStats());
+        metrics.put("tokenCache", tokenCache.stats());
+        metrics.put("passwordHashing", passwordHashing.stats());
+        metrics.put("loginLimiter", loginLimiter.stats());
+        metrics.put("optimisticRetry", optimisticRetry.stats());
+        metrics.put("checkout", checkoutPipeline.stats());
+        metrics.put("cartWriteBuffer", cartWriteBuffer.stats());
+        return metrics;
+    }
+}
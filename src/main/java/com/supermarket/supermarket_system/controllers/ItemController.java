@@ -4,16 +4,32 @@
 // This class belongs to the "controllers" package,
 // where we expose REST endpoints for the outside world.
 package com.supermarket.supermarket_system.controllers;
+import com.supermarket.supermarket_system.models.CatalogSnapshot;
 import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.ItemSearchResult;
+import com.supermarket.supermarket_system.models.ItemSuggestion;
 
 // ========================
 // IMPORTS
 // ========================
-import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.services.ItemImportService;
+import com.supermarket.supermarket_system.services.ItemService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 // ========================
 // CONTROLLER CLASS
@@ -24,56 +40,186 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
 
+    // Catalog access goes through ItemService, which caches reads
+    // and invalidates the cache on every write
     @Autowired
-    private ItemRepository itemRepository;
+    private ItemService itemService;
+
+    @Autowired
+    private ItemImportService itemImportService;
 
     // Create a new item
     @PostMapping
     public Item createItem(@RequestBody Item item) {
-        return itemRepository.save(item);
+        return itemService.createItem(item);
+    }
+
+
+    // Bulk create/update items from a CSV or NDJSON upload (ADMIN ONLY - enforced by SecurityConfig)
+    // The body is streamed, not buffered; the response lists rows that were rejected
+    // Example: curl -X POST --data-binary @items.csv -H "Content-Type: text/csv" /items/import
+    @PostMapping("/import")
+    public ResponseEntity<?> importItems(HttpServletRequest request,
+                                         @RequestParam(required = false) String format) {
+        ItemImportService.Format importFormat = importFormat(format, request.getContentType());
+        if (importFormat == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body(Map.of("error", "Upload text/csv or application/x-ndjson, or pass ?format=csv|ndjson"));
+        }
+        try (Reader body = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(itemImportService.importItems(body, importFormat));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Could not read upload: " + e.getMessage()));
+        }
     }
 
+    private static ItemImportService.Format importFormat(String format, String contentType) {
+        String type = (format != null ? format : contentType != null ? contentType : "").toLowerCase(Locale.ROOT);
+        if (type.contains("csv")) {
+            return ItemImportService.Format.CSV;
+        }
+        if (type.contains("ndjson") || type.contains("jsonl")) {
+            return ItemImportService.Format.NDJSON;
+        }
+        return null;
+    }
 
     // Delete an item
     @DeleteMapping("/{id}")
     public String deleteItem(@PathVariable Long id) {
-        itemRepository.deleteById(id);
+        itemService.deleteItem(id);
         return "Item deleted successfully!";
     }
 
-    // Get all items
+    private static final int MAX_LIST_PAGE_SIZE = 100;
+
+    // Get all items, or one filtered page of them
+    // Example: /items?category=Dairy&minPrice=1&maxPrice=5&inStock=true&sort=price,desc&page=0&size=20
+    // Pass the returned nextCursor back as ?cursor= (same filters and sort) to fetch the following page
+    // Without parameters the full catalog is served from a pre-serialized snapshot
     @GetMapping
-    public List<Item> getAllItems() {
-        return itemRepository.findAll();
+    public ResponseEntity<?> getAllItems(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        boolean filtered = category != null || minPrice != null || maxPrice != null || inStock
+                || sort != null || page != null || size != null || cursor != null;
+        if (filtered) {
+            try {
+                int pageSize = size == null ? 20 : Math.max(1, Math.min(size, MAX_LIST_PAGE_SIZE));
+                return ResponseEntity.ok(itemService.findSummaries(category, minPrice, maxPrice, inStock,
+                        sort == null ? "id" : sort, cursor, page == null ? 0 : Math.max(0, page), pageSize));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", e.getMessage()));
+            }
+        }
+        return catalogResponse(ifNoneMatch, acceptEncoding);
+    }
+
+    // Served from a pre-serialized snapshot: a client that sends back the ETag it
+    // got in If-None-Match receives 304 with no body while the catalog is unchanged
+    private ResponseEntity<byte[]> catalogResponse(String ifNoneMatch, String acceptEncoding) {
+        CatalogSnapshot catalog = itemService.catalogSnapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? catalog.getGzipEtag() : catalog.getEtag();
+
+        // no-cache: clients and proxies may store the body but must revalidate it
+        HttpStatus status = matchesAny(ifNoneMatch, etag) ? HttpStatus.NOT_MODIFIED : HttpStatus.OK;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (status == HttpStatus.NOT_MODIFIED) {
+            return response.build();
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(gzip ? catalog.getGzip() : catalog.getJson());
+    }
+
+    // Only the tag of the representation being served counts: a client holding the
+    // identity body must not get 304 for a gzip request, or the other way round
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2); // If-None-Match uses weak comparison
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    // Search items by text, with optional category and price filters
+    // Example: /items/search?q=dark choc&category=Snacks&maxPrice=5&page=0&size=20
+    @GetMapping("/search")
+    public ItemSearchResult searchItems(@RequestParam(required = false) String q,
+                                        @RequestParam(required = false) String category,
+                                        @RequestParam(required = false) Double minPrice,
+                                        @RequestParam(required = false) Double maxPrice,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        return itemService.search(q, category, minPrice, maxPrice, Math.max(0, page), pageSize);
+    }
+
+    private static final int MAX_SUGGESTIONS = 20;
+
+    // Autocomplete item names as the user types, best sellers first
+    // Example: /items/suggest?prefix=choc&limit=10
+    @GetMapping("/suggest")
+    public List<ItemSuggestion> suggestItems(@RequestParam(required = false) String prefix,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        return itemService.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
     }
 
     // Get a single item by ID
     @GetMapping("/{id}")
     public Item getItemsById(@PathVariable Long id) {
-        return itemRepository.findById(id).orElse(null);
+        return itemService.findById(id).orElse(null);
     }
 
     // Modify existing item
     @PutMapping("/{id}")
     public Item updateItem(@PathVariable Long id, @RequestBody Item updatedItem) {
-        return itemRepository.findById(id).map(item -> {
-            if (updatedItem.getName() != null) {
-                item.setName(updatedItem.getName());
-            }
-            if (updatedItem.getPrice() != null) {
-                item.setPrice(updatedItem.getPrice());
-            }
-            if (updatedItem.getQuantity() != 0) {
-                item.setQuantity(updatedItem.getQuantity());
-            }
-            if (updatedItem.getCategory() != null) {
-                item.setCategory(updatedItem.getCategory());
-            }
-            if (updatedItem.getDescription() != null) {
-                item.setDescription(updatedItem.getDescription());
-            }
-            return itemRepository.save(item);
-        }).orElse(null);// If not found, return null
+        return itemService.updateItem(id, updatedItem); // If not found, returns null
     }
 }
 
@@ -1,13 +1,21 @@
 package com.supermarket.supermarket_system.controllers;
 
+import com.supermarket.supermarket_system.exceptions.TooManyRequestsException;
 import com.supermarket.supermarket_system.models.Order;
+import com.supermarket.supermarket_system.models.OrderPage;
+import com.supermarket.supermarket_system.services.CheckoutPipeline;
 import com.supermarket.supermarket_system.services.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -15,24 +23,48 @@ import java.util.Map;
 @RequestMapping("/orders")
 public class OrderController {
 
+    // Page size limits for the admin listings
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private CheckoutPipeline checkoutPipeline;
+
+    private static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
     // Create order from user's cart
+    // In async mode the order is only accepted here (202, status PENDING); poll
+    // /orders/{orderId}/details until it becomes SHIPPING or FAILED
     @PostMapping("/{userId}/checkout")
     public ResponseEntity<?> createOrder(
             @PathVariable Long userId,
             @RequestBody Map<String, String> request) {
         try {
             String paymentMethod = request.get("paymentMethod");
-            Order order = orderService.createOrderFromCart(userId, paymentMethod);
+            Order order = checkoutPipeline.checkout(userId, paymentMethod);
+            if (checkoutPipeline.isEnabled()) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(Map.of("orderId", order.getId(), "status", order.getStatus()));
+            }
             return ResponseEntity.ok(order);
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", e.getMessage()));
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // Buffered cart changes could not be saved; nothing was checked out
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -66,30 +98,58 @@ public class OrderController {
         }
     }
 
-    // Get all orders (ADMIN ONLY - enforced by SecurityConfig)
+    // Get all orders, one page at a time (ADMIN ONLY - enforced by SecurityConfig)
+    // Pass the returned nextCursor back as ?cursor= to fetch the following page
     @GetMapping("/all")
-    public ResponseEntity<?> getAllOrders() {
+    public ResponseEntity<?> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
         try {
-            List<Order> orders = orderService.getAllOrders();
-            return ResponseEntity.ok(orders);
+            OrderPage page = orderService.getAllOrders(cursor, clampPageSize(limit));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
 
-    // Get orders by status (ADMIN ONLY - enforced by SecurityConfig)
+    // Get orders by status, one page at a time (ADMIN ONLY - enforced by SecurityConfig)
     @GetMapping("/status/{status}")
-    public ResponseEntity<?> getOrdersByStatus(@PathVariable String status) {
+    public ResponseEntity<?> getOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
         try {
-            List<Order> orders = orderService.getOrdersByStatus(status);
-            return ResponseEntity.ok(orders);
+            OrderPage page = orderService.getOrdersByStatus(status, cursor, clampPageSize(limit));
+            return ResponseEntity.ok(page);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
         }
     }
 
+    // Export orders as newline-delimited JSON (ADMIN ONLY - enforced by SecurityConfig)
+    // Optional filters: status, from (inclusive) and to (exclusive) as ISO date-times
+    // Example: /orders/export?status=SHIPPING&from=2025-01-01T00:00:00
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        if (from != null && to != null && !from.isBefore(to)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "'from' must be before 'to'");
+            return;
+        }
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        orderService.exportOrders(status, from, to, response.getOutputStream());
+    }
+
     // Get user's orders filtered by status
     @GetMapping("/user/{userId}/status/{status}")
     public ResponseEntity<?> getUserOrdersByStatus(
@@ -134,6 +194,9 @@ public class OrderController {
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Order was modified concurrently, please retry"));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
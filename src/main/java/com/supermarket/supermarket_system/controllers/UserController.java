@@ -1,8 +1,12 @@
 package com.supermarket.supermarket_system.controllers;
 
+import com.supermarket.supermarket_system.exceptions.TooManyRequestsException;
 import com.supermarket.supermarket_system.models.User;
 import com.supermarket.supermarket_system.services.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -15,19 +19,30 @@ public class UserController {
     private UserService userService;
 
     @PostMapping("/register")
-    public User registerUser(@RequestBody User user) {
-        return userService.registerUser(user.getName(), user.getEmail(), user.getPassword(), user.getPhone(), user.getAddress(), user.getRole());
+    public ResponseEntity<?> registerUser(@RequestBody User user) {
+        try {
+            return ResponseEntity.ok(userService.registerUser(user.getName(), user.getEmail(), user.getPassword(), user.getPhone(), user.getAddress(), user.getRole()));
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping("/login")
-    public Map<String, String> loginUser(@RequestBody User user) {
-        String token = userService.loginUser(user.getEmail(), user.getPassword());
+    public ResponseEntity<?> loginUser(@RequestBody User user, HttpServletRequest request) {
+        String token;
+        try {
+            // The client's address: behind a trusted proxy, Tomcat resolves it from
+            // X-Forwarded-For (server.forward-headers-strategy=native)
+            token = userService.loginUser(user.getEmail(), user.getPassword(), request.getRemoteAddr());
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
         if (token == null) {
-            return Map.of("message", "Invalid email or password.");
+            return ResponseEntity.ok(Map.of("message", "Invalid email or password."));
         }
-        return Map.of(
+        return ResponseEntity.ok(Map.of(
                 "message", "Login successful!",
                 "token", token
-        );
+        ));
     }
 }
@@ -0,0 +1,12 @@
+package com.supermarket.supermarket_system.exceptions;
+
+/**
+ * Thrown when a request is rejected to protect shared capacity
+ * (saturated worker pool, rate limit). Controllers map it to HTTP 429.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
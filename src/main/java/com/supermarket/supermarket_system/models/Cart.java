@@ -1,7 +1,6 @@
 package com.supermarket.supermarket_system.models;
 
 import jakarta.persistence.*;
-import java.util.HashMap;
 import java.util.Map;
 
 @Entity
@@ -17,17 +16,20 @@ public class Cart {
     private User user;
 
     @Convert(converter = ItemsMapConverter.class)
-    @Column(columnDefinition = "TEXT")
-    private Map<Long, Integer> items = new HashMap<>(); // itemId -> quantity
+    @Column(columnDefinition = "BLOB")
+    private ItemQuantityMap items = new ItemQuantityMap(); // itemId -> quantity
 
     @Column
     private double totalPrice = 0.0;
 
+    @Version
+    private long version; // optimistic lock, also bumped by CartRepository.updateTotalPrice
+
     public Cart() {}
 
     public Cart(User user) {
         this.user = user;
-        this.items = new HashMap<>();
+        this.items = new ItemQuantityMap();
         this.totalPrice = 0.0;
     }
 
@@ -43,11 +45,11 @@ public class Cart {
         this.user = user;
     }
 
-    public Map<Long, Integer> getItems() {
+    public ItemQuantityMap getItems() {
         return items;
     }
     public void setItems(Map<Long, Integer> items) {
-        this.items = items;
+        this.items = items instanceof ItemQuantityMap lines ? lines : new ItemQuantityMap(items);
     }
 
     // Calculated total - requires ItemRepository to fetch prices
@@ -59,18 +61,35 @@ public class Cart {
         this.totalPrice = totalPrice;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Detached copy with its own items map, safe to hand out while the
+     * original keeps changing (used by the cart write buffer)
+     */
+    public Cart snapshot() {
+        Cart copy = new Cart(user);
+        copy.id = id;
+        copy.items = new ItemQuantityMap(items);
+        copy.totalPrice = totalPrice;
+        copy.version = version;
+        return copy;
+    }
+
     // Helper methods
     public void addItem(Long itemId, int quantity) {
-        items.put(itemId, items.getOrDefault(itemId, 0) + quantity);
+        items.addQuantity(itemId, quantity);
     }
 
     public void updateItemQuantity(Long itemId, int quantity) {
-        if (quantity <= 0) items.remove(itemId);
-        else items.put(itemId, quantity);
+        if (quantity <= 0) items.removeItem(itemId);
+        else items.putQuantity(itemId, quantity);
     }
 
     public void removeItem(Long itemId) {
-        items.remove(itemId);
+        items.removeItem(itemId);
     }
 
     public void clearCart() {
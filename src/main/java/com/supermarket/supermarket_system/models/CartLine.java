@@ -0,0 +1,54 @@
+package com.supermarket.supermarket_system.models;
+
+import jakarta.persistence.*;
+
+/**
+ * One line of a cart in the relational line-item model (cart_lines table).
+ * Only used when supermarket.line-items.relational=true.
+ */
+@Entity
+@Table(name = "cart_lines",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cart_lines_cart_item", columnNames = {"cart_id", "item_id"}),
+        indexes = @Index(name = "idx_cart_lines_item", columnList = "item_id"))
+public class CartLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cart_id", nullable = false)
+    private Cart cart;
+
+    // Plain column, not a foreign key: lines outlive deleted items, like the JSON map did
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "unit_price")
+    private Double unitPrice; // price when the line was last written
+
+    public CartLine() {}
+
+    public CartLine(Cart cart, Long itemId, int quantity, Double unitPrice) {
+        this.cart = cart;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    // Getters & Setters
+    public Long getId() { return id; }
+
+    public Cart getCart() { return cart; }
+
+    public Long getItemId() { return itemId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public Double getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(Double unitPrice) { this.unitPrice = unitPrice; }
+}
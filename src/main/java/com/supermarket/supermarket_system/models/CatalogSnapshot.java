@@ -0,0 +1,52 @@
+package com.supermarket.supermarket_system.models;
+
+/**
+ * Immutable, pre-serialized copy of the full item list served by GET /items.
+ *
+ * The JSON body and its gzip variant are built once per catalog version, and
+ * each has its own strong ETag (derived from the JSON content, so it survives
+ * restarts). Callers must not modify the byte arrays.
+ */
+public class CatalogSnapshot {
+
+    private final long version;
+    private final int itemCount;
+    private final String etag;
+    private final String gzipEtag;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    public CatalogSnapshot(long version, int itemCount, String etag, byte[] json, byte[] gzip) {
+        this.version = version;
+        this.itemCount = itemCount;
+        this.etag = etag;
+        // A different encoding is a different representation, so it needs its own tag
+        this.gzipEtag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getGzipEtag() {
+        return gzipEtag;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+}
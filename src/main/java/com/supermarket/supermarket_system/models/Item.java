@@ -3,7 +3,13 @@ package com.supermarket.supermarket_system.models;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        // Filtered listings (GET /items?...); each ends in id, the sort tie-breaker
+        @Index(name = "idx_items_category_price_id", columnList = "category, price, id"),
+        @Index(name = "idx_items_category_name_id", columnList = "category, name, id"),
+        @Index(name = "idx_items_price_id", columnList = "price, id"),
+        @Index(name = "idx_items_name_id", columnList = "name, id")
+})
 public class Item {
 
     @Id
@@ -18,6 +24,10 @@ public class Item {
     private String category;
     private String description;
 
+    // Optimistic lock: bumped on every update, including SQL stock changes
+    @Version
+    private long version;
+
     public Item() {}
 
     public Item(String name, Double price, int quantity, String category, String description) {
@@ -51,6 +61,20 @@ public class Item {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    // Version (managed by JPA)
+    public long getVersion() { return version; }
+
+    /**
+     * Detached copy, safe to cache and hand out: changes to it are never
+     * flushed, and changes to the managed original never show through
+     */
+    public Item snapshot() {
+        Item copy = new Item(name, price, quantity, category, description);
+        copy.id = id;
+        copy.version = version;
+        return copy;
+    }
+
 
 
 
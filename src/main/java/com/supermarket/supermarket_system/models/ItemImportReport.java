@@ -0,0 +1,68 @@
+package com.supermarket.supermarket_system.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk item import: row counts and the errors of rejected rows.
+ * Line numbers refer to the uploaded file (the CSV header is line 1).
+ * At most MAX_ERRORS errors are listed; failed still counts every one.
+ */
+public class ItemImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    /**
+     * Why one row of the file was not imported
+     */
+    public record RowError(int line, String message) {}
+
+    private int rowsRead;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    public void addInserted(int count) {
+        inserted += count;
+    }
+
+    public void addUpdated(int count) {
+        updated += count;
+    }
+
+    public void addError(int line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return failed > errors.size();
+    }
+}
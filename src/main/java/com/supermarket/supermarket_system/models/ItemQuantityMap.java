@@ -0,0 +1,296 @@
+package com.supermarket.supermarket_system.models;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact itemId -> quantity map used for cart and order lines.
+ *
+ * Keys and values live in two parallel primitive arrays with open addressing
+ * (linear probing), so a line costs 12 bytes of array space instead of a boxed
+ * Long, a boxed Integer and a HashMap node. Key 0 is the empty-slot marker and
+ * is stored separately.
+ *
+ * It is still a {@code Map<Long, Integer>}, so existing callers and JSON
+ * serialization keep working; hot paths should prefer the primitive methods
+ * ({@link #getQuantity}, {@link #putQuantity}, {@link #forEachLine}, ...).
+ * Iterators are read-only.
+ */
+public class ItemQuantityMap extends AbstractMap<Long, Integer> {
+
+    /**
+     * Receives one (itemId, quantity) line without boxing
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+        void accept(long itemId, int quantity);
+    }
+
+    private static final int MIN_CAPACITY = 4;
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;          // entries in the arrays (excludes key 0)
+    private int threshold;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public ItemQuantityMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public ItemQuantityMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public ItemQuantityMap(Map<Long, Integer> source) {
+        this(source.size());
+        if (source instanceof ItemQuantityMap other) {
+            other.forEachLine(this::putQuantity);
+        } else {
+            for (Map.Entry<Long, Integer> entry : source.entrySet()) {
+                putQuantity(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    // ----------------------
+    // PRIMITIVE API
+    // ----------------------
+
+    public boolean containsItem(long itemId) {
+        if (itemId == EMPTY) return hasZeroKey;
+        return slotOf(itemId) >= 0;
+    }
+
+    /**
+     * @return the quantity for the item, or 0 if it is not in the map
+     */
+    public int getQuantity(long itemId) {
+        if (itemId == EMPTY) return hasZeroKey ? zeroValue : 0;
+        int slot = slotOf(itemId);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    /**
+     * Sets the quantity for the item, replacing any previous value
+     */
+    public void putQuantity(long itemId, int quantity) {
+        if (itemId == EMPTY) {
+            hasZeroKey = true;
+            zeroValue = quantity;
+            return;
+        }
+        int slot = hash(itemId) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == itemId) {
+                values[slot] = quantity;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = itemId;
+        values[slot] = quantity;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Adds to the quantity for the item (starting from 0 if absent)
+     */
+    public void addQuantity(long itemId, int delta) {
+        putQuantity(itemId, getQuantity(itemId) + delta);
+    }
+
+    /**
+     * @return true if the item was present
+     */
+    public boolean removeItem(long itemId) {
+        if (itemId == EMPTY) {
+            boolean had = hasZeroKey;
+            hasZeroKey = false;
+            zeroValue = 0;
+            return had;
+        }
+        int slot = slotOf(itemId);
+        if (slot < 0) return false;
+        deleteSlot(slot);
+        return true;
+    }
+
+    /**
+     * Visits every line without boxing
+     */
+    public void forEachLine(LineConsumer consumer) {
+        if (hasZeroKey) consumer.accept(EMPTY, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    // ----------------------
+    // MAP API
+    // ----------------------
+
+    @Override
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long id && containsItem(id);
+    }
+
+    @Override
+    public Integer get(Object key) {
+        if (!(key instanceof Long id) || !containsItem(id)) return null;
+        return getQuantity(id);
+    }
+
+    @Override
+    public Integer put(Long key, Integer value) {
+        Integer previous = get(key);
+        putQuantity(key, value);
+        return previous;
+    }
+
+    @Override
+    public Integer remove(Object key) {
+        Integer previous = get(key);
+        if (previous != null) removeItem((Long) key);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<Long, Integer>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Long, Integer>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ItemQuantityMap.this.size();
+            }
+        };
+    }
+
+    // ----------------------
+    // INTERNALS
+    // ----------------------
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Power-of-two table that keeps the load factor at or below 0.75
+    private static int tableSizeFor(int expectedSize) {
+        int needed = Math.max(MIN_CAPACITY, (int) Math.ceil(expectedSize / 0.75) + 1);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * 0.75);
+    }
+
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry into the gap unless its home lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Long, Integer>> {
+        private boolean zeroPending = hasZeroKey;
+        private int index = -1;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            index++;
+            while (index < keys.length && keys[index] == EMPTY) index++;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return zeroPending || index < keys.length;
+        }
+
+        @Override
+        public Map.Entry<Long, Integer> next() {
+            if (zeroPending) {
+                zeroPending = false;
+                return new SimpleImmutableEntry<>(EMPTY, zeroValue);
+            }
+            if (index >= keys.length) throw new NoSuchElementException();
+            Map.Entry<Long, Integer> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+            advance();
+            return entry;
+        }
+    }
+}
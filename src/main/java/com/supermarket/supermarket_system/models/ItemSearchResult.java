@@ -0,0 +1,34 @@
+package com.supermarket.supermarket_system.models;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of item search results.
+ * total counts all matches; categories maps each category to its match count,
+ * ignoring the category filter so clients can offer the other choices.
+ */
+public class ItemSearchResult {
+
+    private final List<Item> items;
+    private final int total;
+    private final Map<String, Integer> categories;
+
+    public ItemSearchResult(List<Item> items, int total, Map<String, Integer> categories) {
+        this.items = items;
+        this.total = total;
+        this.categories = categories;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public Map<String, Integer> getCategories() {
+        return categories;
+    }
+}
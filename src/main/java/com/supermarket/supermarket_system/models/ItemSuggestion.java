@@ -0,0 +1,33 @@
+package com.supermarket.supermarket_system.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * One autocomplete suggestion: an item ID and its display name.
+ * Popularity (units sold) orders the suggestions but is not sent to clients.
+ */
+public class ItemSuggestion {
+
+    private final Long id;
+    private final String name;
+    private final long popularity;
+
+    public ItemSuggestion(Long id, String name, long popularity) {
+        this.id = id;
+        this.name = name;
+        this.popularity = popularity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @JsonIgnore
+    public long getPopularity() {
+        return popularity;
+    }
+}
@@ -0,0 +1,43 @@
+package com.supermarket.supermarket_system.models;
+
+/**
+ * Catalog listing row: the item columns a product grid needs, without the
+ * description. Built directly by a JPQL constructor expression, so listings
+ * never load (or dirty-check) full Item entities.
+ */
+public class ItemSummary {
+
+    private final Long id;
+    private final String name;
+    private final Double price;
+    private final int quantity;
+    private final String category;
+
+    public ItemSummary(Long id, String name, Double price, int quantity, String category) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.quantity = quantity;
+        this.category = category;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
@@ -0,0 +1,45 @@
+package com.supermarket.supermarket_system.models;
+
+import java.util.List;
+
+/**
+ * One page of a filtered catalog listing.
+ * hasNext is true when at least one more item matches after this page;
+ * nextCursor (null on the last page) fetches it as ?cursor=.
+ */
+public class ItemSummaryPage {
+
+    private final List<ItemSummary> items;
+    private final int page;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public ItemSummaryPage(List<ItemSummary> items, int page, int size, boolean hasNext, String nextCursor) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ItemSummary> getItems() {
+        return items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,99 @@
+package com.supermarket.supermarket_system.models;
+
+import java.util.Arrays;
+
+/**
+ * Compact binary codec for the items column.
+ *
+ * Layout (version 1):
+ * <pre>
+ *   [0x01] [count: varint] then per line, in ascending itemId order:
+ *   [itemId delta from previous line: unsigned varint] [quantity: zigzag varint]
+ * </pre>
+ * Sorted deltas keep item IDs to one or two bytes each for typical catalogs.
+ * The leading version byte can never start a JSON row ('{' or whitespace),
+ * which is how readers tell the two formats apart.
+ */
+final class ItemsBinaryCodec {
+
+    static final byte VERSION_1 = 0x01;
+
+    // Worst case per line: 10-byte delta + 5-byte quantity
+    private static final int MAX_LINE_BYTES = 15;
+    private static final int MAX_RETAINED_BYTES = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[512]);
+
+    private ItemsBinaryCodec() {}
+
+    static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == VERSION_1;
+    }
+
+    static byte[] encode(ItemQuantityMap items) {
+        long[] itemIds = new long[items.size()];
+        int[] count = {0};
+        items.forEachLine((itemId, quantity) -> itemIds[count[0]++] = itemId);
+        Arrays.sort(itemIds);
+
+        int maxLength = 1 + 5 + itemIds.length * MAX_LINE_BYTES;
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < maxLength) {
+            buffer = new byte[Math.max(maxLength, buffer.length * 2)];
+            if (buffer.length <= MAX_RETAINED_BYTES) BUFFER.set(buffer);
+        }
+
+        int pos = 0;
+        buffer[pos++] = VERSION_1;
+        pos = writeVarLong(buffer, pos, itemIds.length);
+
+        long previous = 0;
+        for (long itemId : itemIds) {
+            pos = writeVarLong(buffer, pos, itemId - previous);
+            int quantity = items.getQuantity(itemId);
+            pos = writeVarLong(buffer, pos, ((quantity << 1) ^ (quantity >> 31)) & 0xFFFFFFFFL);
+            previous = itemId;
+        }
+        return Arrays.copyOf(buffer, pos);
+    }
+
+    static ItemQuantityMap decode(byte[] data) {
+        int[] pos = {1};
+        long count = readVarLong(data, pos);
+        if (count < 0 || count > data.length) {
+            throw new IllegalArgumentException("Error decoding items: bad line count " + count);
+        }
+
+        ItemQuantityMap items = new ItemQuantityMap((int) count);
+        long itemId = 0;
+        for (long i = 0; i < count; i++) {
+            itemId += readVarLong(data, pos);
+            int zigzag = (int) readVarLong(data, pos);
+            items.putQuantity(itemId, (zigzag >>> 1) ^ -(zigzag & 1));
+        }
+        return items;
+    }
+
+    // Unsigned LEB128: 7 bits per byte, high bit set on all but the last byte
+    private static int writeVarLong(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarLong(byte[] in, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= in.length) {
+                throw new IllegalArgumentException("Error decoding items: truncated data");
+            }
+            byte b = in[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Error decoding items: varint too long");
+    }
+}
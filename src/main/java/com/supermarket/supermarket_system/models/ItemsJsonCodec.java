@@ -0,0 +1,145 @@
+package com.supermarket.supermarket_system.models;
+
+/**
+ * Hand-rolled codec for the {"itemId":quantity,...} JSON stored in the items column.
+ *
+ * Encoding appends into a per-thread reusable StringBuilder; decoding scans the
+ * column string in place and writes straight into an {@link ItemQuantityMap}.
+ * Neither direction builds a token tree, boxed numbers or intermediate strings.
+ *
+ * {@link #decode} accepts exactly what Jackson wrote for Map<Long, Integer>
+ * (quoted integer keys, integer values) plus insignificant whitespace, quoted
+ * values and fractional values (truncated, as Jackson coerces them). Anything
+ * else returns null so the caller can fall back to a full JSON parser.
+ */
+final class ItemsJsonCodec {
+
+    // Builders that grew past this are not kept for reuse
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private ItemsJsonCodec() {}
+
+    static String encode(ItemQuantityMap items) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+
+        sb.append('{');
+        items.forEachLine((itemId, quantity) -> {
+            if (sb.length() > 1) sb.append(',');
+            sb.append('"').append(itemId).append("\":").append(quantity);
+        });
+        sb.append('}');
+
+        String json = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return json;
+    }
+
+    /**
+     * @return the decoded lines, or null if the text is not in the simple format
+     */
+    static ItemQuantityMap decode(String json) {
+        Cursor in = new Cursor(json);
+
+        in.skipWhitespace();
+        if (!in.consume('{')) return null;
+
+        ItemQuantityMap items = new ItemQuantityMap();
+        in.skipWhitespace();
+        if (in.consume('}')) {
+            return in.atEndAfterWhitespace() ? items : null;
+        }
+
+        while (true) {
+            in.skipWhitespace();
+            boolean quotedKey = in.consume('"');
+            long itemId = in.readLong();
+            if (in.failed || (quotedKey && !in.consume('"'))) return null;
+
+            in.skipWhitespace();
+            if (!in.consume(':')) return null;
+            in.skipWhitespace();
+
+            boolean quotedValue = in.consume('"');
+            long quantity = in.readLong();
+            in.skipFraction();
+            if (in.failed || (quotedValue && !in.consume('"'))) return null;
+            if (quantity < Integer.MIN_VALUE || quantity > Integer.MAX_VALUE) return null;
+
+            items.putQuantity(itemId, (int) quantity);
+
+            in.skipWhitespace();
+            if (in.consume(',')) continue;
+            if (in.consume('}')) break;
+            return null;
+        }
+        return in.atEndAfterWhitespace() ? items : null;
+    }
+
+    // Position over the input; failed is set instead of throwing
+    private static final class Cursor {
+        private final String s;
+        private final int length;
+        private int pos;
+        private boolean failed;
+
+        Cursor(String s) {
+            this.s = s;
+            this.length = s.length();
+        }
+
+        void skipWhitespace() {
+            while (pos < length) {
+                char c = s.charAt(pos);
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') break;
+                pos++;
+            }
+        }
+
+        boolean consume(char expected) {
+            if (pos < length && s.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean atEndAfterWhitespace() {
+            skipWhitespace();
+            return pos == length;
+        }
+
+        long readLong() {
+            boolean negative = consume('-');
+            int start = pos;
+            long value = 0;
+            while (pos < length) {
+                char c = s.charAt(pos);
+                if (c < '0' || c > '9') break;
+                if (pos - start >= 18) { // would risk overflowing a long
+                    failed = true;
+                    return 0;
+                }
+                value = value * 10 + (c - '0');
+                pos++;
+            }
+            if (pos == start) failed = true;
+            return negative ? -value : value;
+        }
+
+        // Drops a fractional part such as ".0"; exponents are not supported
+        void skipFraction() {
+            if (consume('.')) {
+                int start = pos;
+                while (pos < length && s.charAt(pos) >= '0' && s.charAt(pos) <= '9') pos++;
+                if (pos == start) failed = true;
+            }
+            if (pos < length && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) failed = true;
+        }
+    }
+}
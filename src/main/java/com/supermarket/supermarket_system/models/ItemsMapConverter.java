@@ -1,40 +1,101 @@
 package com.supermarket.supermarket_system.models;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
+/**
+ * Stores an {@link ItemQuantityMap} (itemId -> quantity) in the items column.
+ *
+ * Two formats are supported:
+ *   - JSON text, e.g. {"12":3,"40":1}, via {@link ItemsJsonCodec} (default)
+ *   - compact binary, via {@link ItemsBinaryCodec} (supermarket.line-items.encoding=binary)
+ *
+ * Hibernate obtains converters through Spring's bean container, so each
+ * persistence unit gets an instance built with its own context's
+ * supermarket.line-items.encoding; the no-argument constructor (JSON) is only
+ * for use outside Spring. Reads detect the format from the first byte, so JSON rows keep loading after switching to binary and are
+ * rewritten in the new format the next time their owner is saved. JSON rows the
+ * codec does not recognise are read with Jackson's token stream instead.
+ */
 @Converter
-public class ItemsMapConverter implements AttributeConverter<Map<Long, Integer>, String> {
+public class ItemsMapConverter implements AttributeConverter<ItemQuantityMap, byte[]> {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final byte[] EMPTY_JSON = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean binaryEncoding;
+
+    public ItemsMapConverter() {
+        this("json");
+    }
+
+    /**
+     * @param encoding the format used for writes, "json" or "binary"; reads always accept both
+     */
+    @Autowired
+    public ItemsMapConverter(@Value("${supermarket.line-items.encoding:json}") String encoding) {
+        if (!encoding.equalsIgnoreCase("json") && !encoding.equalsIgnoreCase("binary")) {
+            throw new IllegalStateException(
+                    "supermarket.line-items.encoding must be 'json' or 'binary', got: " + encoding);
+        }
+        this.binaryEncoding = encoding.equalsIgnoreCase("binary");
+    }
 
     @Override
-    public String convertToDatabaseColumn(Map<Long, Integer> attribute) {
-        if (attribute == null || attribute.isEmpty()) {
-            return "{}";
+    public byte[] convertToDatabaseColumn(ItemQuantityMap attribute) {
+        if (attribute == null) {
+            attribute = new ItemQuantityMap();
         }
-        try {
-            return objectMapper.writeValueAsString(attribute);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException("Error converting map to JSON", e);
+        if (binaryEncoding) {
+            return ItemsBinaryCodec.encode(attribute);
         }
+        if (attribute.isEmpty()) {
+            return EMPTY_JSON.clone();
+        }
+        return ItemsJsonCodec.encode(attribute).getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
-    public Map<Long, Integer> convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.trim().isEmpty()) {
-            return new HashMap<>();
+    public ItemQuantityMap convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null || dbData.length == 0) {
+            return new ItemQuantityMap();
+        }
+        if (ItemsBinaryCodec.isBinary(dbData)) {
+            return ItemsBinaryCodec.decode(dbData);
+        }
+
+        String json = new String(dbData, StandardCharsets.UTF_8);
+        if (json.isBlank()) {
+            return new ItemQuantityMap();
         }
-        try {
-            return objectMapper.readValue(dbData, new TypeReference<Map<Long, Integer>>() {});
-        } catch (JsonProcessingException e) {
+        ItemQuantityMap items = ItemsJsonCodec.decode(json);
+        return items != null ? items : parseWithJackson(json);
+    }
+
+    // Fallback for rows outside the codec's simple format
+    private ItemQuantityMap parseWithJackson(String dbData) {
+        try (JsonParser parser = JSON.createParser(dbData)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Error converting JSON to map: expected an object");
+            }
+            ItemQuantityMap items = new ItemQuantityMap();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                long itemId = Long.parseLong(parser.currentName());
+                parser.nextToken();
+                items.putQuantity(itemId, parser.getValueAsInt());
+            }
+            return items;
+        } catch (IOException | NumberFormatException e) {
             throw new IllegalArgumentException("Error converting JSON to map", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -6,7 +6,12 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Keyset pagination: newest first, id as tie-breaker
+        @Index(name = "idx_orders_date_id", columnList = "orderDate, id"),
+        @Index(name = "idx_orders_status_date_id", columnList = "status, orderDate, id"),
+        @Index(name = "idx_orders_user_date_id", columnList = "user_id, orderDate, id")
+})
 public class Order {
 
     @Id
@@ -18,8 +23,8 @@ public class Order {
     private User user;
 
     @Convert(converter = ItemsMapConverter.class)
-    @Column(columnDefinition = "TEXT")
-    private Map<Long, Integer> items = new HashMap<>(); // itemId -> quantity
+    @Column(columnDefinition = "BLOB")
+    private ItemQuantityMap items = new ItemQuantityMap(); // itemId -> quantity
 
     @Transient // Not persisted to database, used only for API responses
     private Map<String, Object> itemDetails = new HashMap<>(); // itemName -> {quantity, price, subtotal}
@@ -28,11 +33,14 @@ public class Order {
     private LocalDateTime orderDate;
 
     @Column(nullable = false)
-    private String status; // e.g., SHIPPING, COMPLETED, CANCELLED, SHIPPED
+    private String status; // e.g., PENDING (async checkout), SHIPPING, COMPLETED, CANCELLED, FAILED
 
     @Column(nullable = false)
     private String paymentmethod; // e.g., CREDIT_CARD, PAYPAL, CASH_ON_DELIVERY
 
+    @Version
+    private long version; // optimistic lock
+
     public Order() {
         this.orderDate = LocalDateTime.now();
         this.status = "PENDING";
@@ -42,7 +50,7 @@ public class Order {
 
     public Order(User user, Map<Long, Integer> items) {
         this.user = user;
-        this.items = items;
+        setItems(items);
         this.orderDate = LocalDateTime.now();
         this.status = "SHIPPING";
     }
@@ -59,11 +67,11 @@ public class Order {
         this.user = user;
     }
 
-    public Map<Long, Integer> getItems() {
+    public ItemQuantityMap getItems() {
         return items;
     }
     public void setItems(Map<Long, Integer> items) {
-        this.items = items;
+        this.items = items instanceof ItemQuantityMap lines ? lines : new ItemQuantityMap(items);
     }
 
     public LocalDateTime getOrderDate() {
@@ -87,6 +95,10 @@ public class Order {
         this.paymentmethod = paymentmethod;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public Map<String, Object> getItemDetails() {
         return itemDetails;
     }
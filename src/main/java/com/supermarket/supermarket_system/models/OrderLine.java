@@ -0,0 +1,53 @@
+package com.supermarket.supermarket_system.models;
+
+import jakarta.persistence.*;
+
+/**
+ * One line of an order in the relational line-item model (order_lines table).
+ * Written alongside the JSON items column when supermarket.line-items.relational=true,
+ * so orders can be indexed, joined and aggregated by item.
+ */
+@Entity
+@Table(name = "order_lines",
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_lines_order_item", columnNames = {"order_id", "item_id"}),
+        indexes = @Index(name = "idx_order_lines_item", columnList = "item_id"))
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    // Plain column, not a foreign key: order history must survive item deletion
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "unit_price")
+    private Double unitPrice; // price at checkout time
+
+    public OrderLine() {}
+
+    public OrderLine(Order order, Long itemId, int quantity, Double unitPrice) {
+        this.order = order;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Order getOrder() { return order; }
+
+    public Long getItemId() { return itemId; }
+
+    public int getQuantity() { return quantity; }
+
+    public Double getUnitPrice() { return unitPrice; }
+}
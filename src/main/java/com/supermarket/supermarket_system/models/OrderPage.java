@@ -0,0 +1,26 @@
+package com.supermarket.supermarket_system.models;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated order listing.
+ * nextCursor is null when there are no more orders.
+ */
+public class OrderPage {
+
+    private final List<Order> orders;
+    private final String nextCursor;
+
+    public OrderPage(List<Order> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.CartLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface CartLineRepository extends JpaRepository<CartLine, Long> {
+
+    // All lines of one cart
+    List<CartLine> findByCartId(Long cartId);
+
+    boolean existsByCartId(Long cartId);
+
+    // Insert the line or overwrite its quantity/price in a single statement
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO cart_lines (cart_id, item_id, quantity, unit_price) " +
+            "VALUES (:cartId, :itemId, :quantity, :unitPrice) " +
+            "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), unit_price = VALUES(unit_price)",
+            nativeQuery = true)
+    int upsert(@Param("cartId") Long cartId,
+               @Param("itemId") Long itemId,
+               @Param("quantity") int quantity,
+               @Param("unitPrice") Double unitPrice);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CartLine l WHERE l.cart.id = :cartId AND l.itemId = :itemId")
+    int deleteLine(@Param("cartId") Long cartId, @Param("itemId") Long itemId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CartLine l WHERE l.cart.id = :cartId")
+    int deleteAllLines(@Param("cartId") Long cartId);
+}
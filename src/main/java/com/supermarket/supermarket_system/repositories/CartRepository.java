@@ -2,8 +2,22 @@ package com.supermarket.supermarket_system.repositories;
 
 import com.supermarket.supermarket_system.models.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserId(Long userId);
+
+    // Updates only the total, leaving the items column untouched.
+    // Matches only if the cart is still at the expected version (0 rows = concurrent change).
+    @Modifying
+    @Transactional
+    @Query("UPDATE Cart c SET c.totalPrice = :totalPrice, c.version = c.version + 1 " +
+            "WHERE c.id = :cartId AND c.version = :version")
+    int updateTotalPrice(@Param("cartId") Long cartId, @Param("totalPrice") double totalPrice,
+                         @Param("version") long version);
 }
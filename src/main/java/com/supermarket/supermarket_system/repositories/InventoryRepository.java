@@ -0,0 +1,82 @@
+package com.supermarket.supermarket_system.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock changes applied directly in SQL, so concurrent checkouts cannot
+ * oversell or lose each other's updates.
+ *
+ * Runs on the caller's transaction (JdbcTemplate joins the JPA transaction),
+ * so throwing after a partial reservation rolls every line back.
+ */
+@Repository
+public class InventoryRepository {
+
+    private static final String RESERVE_SQL =
+            "UPDATE items SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+
+    private static final String RESTOCK_SQL =
+            "UPDATE items SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes {@code quantities[i]} units of item {@code itemIds[i]} for every line,
+     * in one JDBC batch. A line only succeeds if enough stock is left at the
+     * moment its row is updated.
+     *
+     * Callers should pass lines sorted by item ID so concurrent reservations
+     * lock rows in the same order and cannot deadlock.
+     *
+     * @return per line, true if the stock was taken; false lines took nothing
+     */
+    public boolean[] reserve(long[] itemIds, int[] quantities) {
+        List<Object[]> args = new ArrayList<>(itemIds.length);
+        for (int i = 0; i < itemIds.length; i++) {
+            args.add(new Object[]{quantities[i], itemIds[i], quantities[i]});
+        }
+
+        // 0 rows: unknown item or not enough stock
+        return matched(jdbcTemplate.batchUpdate(RESERVE_SQL, args));
+    }
+
+    /**
+     * Returns {@code quantities[i]} units of item {@code itemIds[i]} to stock for
+     * every line, in one JDBC batch. Same ordering advice as {@link #reserve}.
+     *
+     * @return per line, true if the item exists and was restocked
+     */
+    public boolean[] restock(long[] itemIds, int[] quantities) {
+        List<Object[]> args = new ArrayList<>(itemIds.length);
+        for (int i = 0; i < itemIds.length; i++) {
+            args.add(new Object[]{quantities[i], itemIds[i]});
+        }
+        return matched(jdbcTemplate.batchUpdate(RESTOCK_SQL, args));
+    }
+
+    // UPDATE batches report a row count per statement, also with rewriteBatchedStatements
+    private static boolean[] matched(int[] counts) {
+        boolean[] matched = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            matched[i] = counts[i] != 0;
+        }
+        return matched;
+    }
+
+    /**
+     * Current stock straight from the database, or null if the item does not exist
+     */
+    public Integer availableQuantity(long itemId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT quantity FROM items WHERE id = ?", Integer.class, itemId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.ItemSummary;
+
+import java.util.List;
+
+/**
+ * Filtered, sorted catalog listing, mixed into {@link ItemRepository}.
+ *
+ * The JPQL is assembled from only the filters that are set, so every query
+ * has plain equality and range predicates the indexes on items can serve
+ * (no "(:param IS NULL OR ...)" terms that hide them from the optimizer).
+ * Rows come back as {@link ItemSummary} projections, not entities.
+ *
+ * Pages can continue from a keyset position (the sort value and id of the last
+ * row seen) instead of an offset, so deep pages are still index range scans.
+ */
+public interface ItemCatalogQuery {
+
+    /**
+     * Sortable properties. Ties are always broken by ID so pages are stable.
+     */
+    enum SortField {
+        ID("i.id"),
+        NAME("i.name"),
+        PRICE("i.price");
+
+        final String path;
+
+        SortField(String path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * @param category     exact category, or null for any
+     * @param minPrice     inclusive lower bound, or null
+     * @param maxPrice     inclusive upper bound, or null
+     * @param inStockOnly  only items with quantity > 0
+     * @param afterValue   keyset position: the sort property's value on the last row
+     *                     already returned (a String for NAME, a Double or null for PRICE,
+     *                     ignored for ID)
+     * @param afterId      keyset position: the id of that row, or null to start at offset
+     * @param offset       rows to skip (only used without a keyset position)
+     * @param limit        maximum rows to return
+     */
+    List<ItemSummary> findSummaries(String category, Double minPrice, Double maxPrice, boolean inStockOnly,
+                                    SortField sort, boolean descending, Object afterValue, Long afterId,
+                                    int offset, int limit);
+}
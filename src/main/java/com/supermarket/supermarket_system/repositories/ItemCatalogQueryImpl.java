@@ -0,0 +1,75 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.ItemSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Picked up by Spring Data through the "Impl" suffix
+class ItemCatalogQueryImpl implements ItemCatalogQuery {
+
+    private static final String SELECT =
+            "SELECT new com.supermarket.supermarket_system.models.ItemSummary(i.id, i.name, i.price, i.quantity, i.category) " +
+            "FROM Item i";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ItemSummary> findSummaries(String category, Double minPrice, Double maxPrice, boolean inStockOnly,
+                                           SortField sort, boolean descending, Object afterValue, Long afterId,
+                                           int offset, int limit) {
+        List<String> predicates = new ArrayList<>();
+        if (category != null) predicates.add("i.category = :category");
+        if (minPrice != null) predicates.add("i.price >= :minPrice");
+        if (maxPrice != null) predicates.add("i.price <= :maxPrice");
+        if (inStockOnly) predicates.add("i.quantity > 0");
+        boolean bindAfterValue = false;
+        if (afterId != null) {
+            String keyset = keysetPredicate(sort, descending, afterValue);
+            bindAfterValue = keyset.contains(":afterValue");
+            predicates.add(keyset);
+        }
+
+        StringBuilder jpql = new StringBuilder(SELECT);
+        if (!predicates.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+        String direction = descending ? " DESC" : " ASC";
+        jpql.append(" ORDER BY ").append(sort.path).append(direction);
+        if (sort != SortField.ID) {
+            jpql.append(", i.id").append(direction);
+        }
+
+        TypedQuery<ItemSummary> query = entityManager.createQuery(jpql.toString(), ItemSummary.class);
+        if (category != null) query.setParameter("category", category);
+        if (minPrice != null) query.setParameter("minPrice", minPrice);
+        if (maxPrice != null) query.setParameter("maxPrice", maxPrice);
+        if (afterId != null) query.setParameter("afterId", afterId);
+        if (bindAfterValue) query.setParameter("afterValue", afterValue);
+        return query.setFirstResult(afterId != null ? 0 : offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Rows strictly after (afterValue, afterId) in the listing's order. MySQL sorts
+    // NULL prices first ascending and last descending, so a NULL position needs its own terms.
+    private static String keysetPredicate(SortField sort, boolean descending, Object afterValue) {
+        String after = descending ? "<" : ">";
+        String idAfter = "i.id " + after + " :afterId";
+        if (sort == SortField.ID) {
+            return idAfter;
+        }
+        String path = sort.path;
+        if (afterValue == null) {
+            return descending
+                    ? "(" + path + " IS NULL AND " + idAfter + ")"
+                    : "((" + path + " IS NULL AND " + idAfter + ") OR " + path + " IS NOT NULL)";
+        }
+        String valueAfter = "(" + path + " " + after + " :afterValue OR (" + path + " = :afterValue AND " + idAfter + "))";
+        return descending ? "(" + valueAfter + " OR " + path + " IS NULL)" : valueAfter;
+    }
+}
@@ -0,0 +1,119 @@
+package com.supermarket.supermarket_system.repositories;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC batch writes for bulk catalog imports.
+ *
+ * Runs on the caller's transaction (JdbcTemplate joins it), so the import can
+ * commit in chunks. Updates only touch the columns a row provides and bump the
+ * version like every other item write.
+ */
+@Repository
+public class ItemImportRepository {
+
+    /**
+     * One validated import row. Null fields are left unchanged on update.
+     */
+    public record Row(int line, Long id, String name, Double price, Integer quantity,
+                      String category, String description) {}
+
+    private static final String INSERT_SQL =
+            "INSERT INTO items (name, price, quantity, category, description, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE items SET name = COALESCE(?, name), price = COALESCE(?, price), " +
+            "quantity = COALESCE(?, quantity), category = COALESCE(?, category), " +
+            "description = COALESCE(?, description), version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the IDs among ids that exist, in one query
+     */
+    public Set<Long> existingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM items WHERE id IN (" + placeholders + ")", Long.class, ids.toArray()));
+    }
+
+    /**
+     * Inserts new items in one JDBC batch (a multi-row INSERT with rewriteBatchedStatements)
+     *
+     * @return the generated IDs of the inserted items
+     */
+    public List<Long> insertAll(List<Row> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Row row = rows.get(i);
+                        ps.setString(1, row.name());
+                        if (row.price() != null) {
+                            ps.setDouble(2, row.price());
+                        } else {
+                            ps.setNull(2, Types.DOUBLE);
+                        }
+                        ps.setInt(3, row.quantity() != null ? row.quantity() : 0);
+                        ps.setString(4, row.category());
+                        ps.setString(5, row.description());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keys);
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Updates existing items in one JDBC batch. Pass rows sorted by ID so the
+     * row locks are taken in the same order as checkout's stock updates.
+     *
+     * @return per row, true if the item still existed and was updated
+     */
+    public boolean[] updateAll(List<Row> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            args.add(new Object[]{row.name(), row.price(), row.quantity(), row.category(), row.description(), row.id()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        boolean[] updated = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            updated[i] = counts[i] != 0;
+        }
+        return updated;
+    }
+}
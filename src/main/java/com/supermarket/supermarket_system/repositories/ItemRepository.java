@@ -7,5 +7,5 @@ import org.springframework.stereotype.Repository; // Marks this as a Spring-mana
 import java.util.List;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemCatalogQuery {
 }
\ No newline at end of file
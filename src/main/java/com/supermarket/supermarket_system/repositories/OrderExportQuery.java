@@ -0,0 +1,28 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.Order;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Streaming order export, mixed into {@link OrderRepository}.
+ *
+ * The JPQL is assembled from only the filters that are set, like
+ * {@link ItemCatalogQuery}. Rows are streamed from MySQL one at a time
+ * (fetch size Integer.MIN_VALUE) on a dedicated connection, so the caller's
+ * own transaction stays free for other queries while the export runs, and the
+ * JDBC URL needs no cursor settings that would affect every other query.
+ */
+public interface OrderExportQuery {
+
+    /**
+     * Orders by ID, with their user fetched. The stream holds a connection until
+     * it is closed, and its orders are detached as they are read.
+     *
+     * @param status exact status, or null for any
+     * @param from   inclusive lower bound on the order date, or null
+     * @param to     exclusive upper bound on the order date, or null
+     */
+    Stream<Order> streamForExport(String status, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,75 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Picked up by Spring Data through the "Impl" suffix
+class OrderExportQueryImpl implements OrderExportQuery {
+
+    // Tells MySQL Connector/J to stream rows instead of buffering the result
+    private static final int STREAM_ROWS = Integer.MIN_VALUE;
+
+    // Orders read between persistence-context clears
+    private static final int CLEAR_EVERY = 500;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Stream<Order> streamForExport(String status, LocalDateTime from, LocalDateTime to) {
+        List<String> predicates = new ArrayList<>();
+        if (status != null) predicates.add("o.status = :status");
+        if (from != null) predicates.add("o.orderDate >= :from");
+        if (to != null) predicates.add("o.orderDate < :to");
+
+        StringBuilder jpql = new StringBuilder("SELECT o FROM Order o JOIN FETCH o.user");
+        if (!predicates.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+        jpql.append(" ORDER BY o.id");
+
+        // A MySQL connection serves nothing else while a streaming result is open,
+        // so the export gets its own entity manager and connection
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            TypedQuery<Order> query = entityManager.createQuery(jpql.toString(), Order.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_ROWS)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true);
+            if (status != null) query.setParameter("status", status);
+            if (from != null) query.setParameter("from", from);
+            if (to != null) query.setParameter("to", to);
+
+            int[] read = {0};
+            return query.getResultStream()
+                    .peek(order -> {
+                        if (++read[0] % CLEAR_EVERY == 0) {
+                            entityManager.clear();
+                        }
+                    })
+                    .onClose(() -> close(entityManager));
+        } catch (RuntimeException e) {
+            close(entityManager);
+            throw e;
+        }
+    }
+
+    private static void close(EntityManager entityManager) {
+        try {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+}
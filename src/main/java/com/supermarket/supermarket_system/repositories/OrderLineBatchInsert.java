@@ -0,0 +1,17 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.OrderLine;
+
+import java.util.List;
+
+/**
+ * Batched insert for order lines, mixed into {@link OrderLineRepository}.
+ *
+ * order_lines uses IDENTITY keys, which makes Hibernate insert rows one
+ * statement at a time. The IDs are never needed right after checkout, so
+ * lines are written with a single JDBC batch instead.
+ */
+public interface OrderLineBatchInsert {
+
+    void insertAll(List<OrderLine> lines);
+}
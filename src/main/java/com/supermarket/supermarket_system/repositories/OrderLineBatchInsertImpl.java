@@ -0,0 +1,29 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.OrderLine;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Picked up by Spring Data through the "Impl" suffix
+class OrderLineBatchInsertImpl implements OrderLineBatchInsert {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_lines (order_id, item_id, quantity, unit_price) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    OrderLineBatchInsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<OrderLine> lines) {
+        List<Object[]> args = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            args.add(new Object[]{line.getOrder().getId(), line.getItemId(), line.getQuantity(), line.getUnitPrice()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+}
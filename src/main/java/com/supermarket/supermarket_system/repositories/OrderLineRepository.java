@@ -0,0 +1,26 @@
+package com.supermarket.supermarket_system.repositories;
+
+import com.supermarket.supermarket_system.models.OrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long>, OrderLineBatchInsert {
+
+    // All lines of one order
+    List<OrderLine> findByOrderId(Long orderId);
+
+    boolean existsByOrderId(Long orderId);
+
+    // Which orders contain a given item (served by idx_order_lines_item)
+    @Query("SELECT DISTINCT l.order.id FROM OrderLine l WHERE l.itemId = :itemId")
+    List<Long> findOrderIdsContainingItem(@Param("itemId") Long itemId);
+
+    // Units ordered per item: [itemId, SUM(quantity)]
+    @Query("SELECT l.itemId, SUM(l.quantity) FROM OrderLine l GROUP BY l.itemId")
+    List<Object[]> sumQuantityByItem();
+}
@@ -1,22 +1,51 @@
 package com.supermarket.supermarket_system.repositories;
 
 import com.supermarket.supermarket_system.models.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderExportQuery {
     // Find orders by user ID, sorted by date (newest first)
     List<Order> findByUserIdOrderByOrderDateDesc(Long userId);
 
-    // Find orders by status
-    List<Order> findByStatusOrderByOrderDateDesc(String status);
-
     // Find orders by user ID and status
     List<Order> findByUserIdAndStatusOrderByOrderDateDesc(Long userId, String status);
 
-    // Find all orders sorted by date (newest first)
-    List<Order> findAllByOrderByOrderDateDesc();
+    // Oldest first (used to re-queue PENDING checkouts)
+    List<Order> findByStatusOrderByIdAsc(String status);
+
+    // ============================================
+    // KEYSET PAGINATION on (orderDate, id), newest first
+    // ============================================
+    // The first page has no cursor; later pages continue strictly after the
+    // last (orderDate, id) seen, so every page is an index range scan.
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.user ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findFirstPage(Pageable pageable);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.user " +
+            "WHERE o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("orderDate") LocalDateTime orderDate,
+                              @Param("id") Long id,
+                              Pageable pageable);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.user WHERE o.status = :status " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findFirstPageByStatus(@Param("status") String status, Pageable pageable);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.user WHERE o.status = :status " +
+            "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageByStatusAfter(@Param("status") String status,
+                                      @Param("orderDate") LocalDateTime orderDate,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
 }
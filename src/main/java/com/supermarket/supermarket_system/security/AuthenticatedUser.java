@@ -0,0 +1,30 @@
+// ========================
+// PACKAGE DECLARATION
+// ========================
+package com.supermarket.supermarket_system.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+// ========================
+// PRINCIPAL: AuthenticatedUser
+// ========================
+// Spring Security "User" that also carries the database user ID from the JWT,
+// so ownership checks can compare IDs without loading the user.
+// userId is null for tokens issued before the "uid" claim existed.
+public class AuthenticatedUser extends User {
+
+    private final Long userId;
+
+    public AuthenticatedUser(Long userId, String email,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(email, "", authorities);
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
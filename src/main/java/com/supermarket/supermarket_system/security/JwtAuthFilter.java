@@ -19,16 +19,12 @@ import jakarta.servlet.http.HttpServletResponse;
 // Spring Security core classes
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
 
 // ========================
 // COMPONENT: JwtAuthFilter
@@ -36,7 +32,7 @@ import java.util.List;
 // This filter runs ONCE per request (extends OncePerRequestFilter).
 // It intercepts incoming HTTP requests and:
 //   1. Extracts the JWT token from the Authorization header.
-//   2. Validates the token using JwtUtils.
+//   2. Validates the token using JwtUtils (or finds it already verified in VerifiedTokenCache).
 //   3. Builds an Authentication object (Username + Role).
 //   4. Stores it in the SecurityContext (so Spring knows who the user is).
 @Component
@@ -46,6 +42,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtil;
 
+    // Tokens that already passed verification, until they expire
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
     // ---------------------------------------------------------------
     // doFilterInternal() — Runs for every request before controllers
     // ---------------------------------------------------------------
@@ -67,25 +67,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // 3️⃣ Extract the actual JWT token (remove "Bearer " prefix)
         String token = authHeader.substring(7);
 
-        // 4️⃣ Validate the token (check signature + expiration)
-        if (jwtUtil.validateToken(token)) {
-
-            // 5️⃣ Extract user info from token
-            String email = jwtUtil.getEmail(token);
-            String role = jwtUtil.getRole(token); // e.g., "ADMIN" or "USER"
+        // 4️⃣ Reuse a previous verification of this exact token if it is still cached
+        String cacheKey = tokenCache.keyOf(token);
+        VerifiedTokenCache.Entry verified = tokenCache.get(cacheKey);
+
+        // 5️⃣ Otherwise verify the token (signature + expiration) and read its claims in one parse
+        if (verified == null) {
+            JwtPrincipal principal = jwtUtil.verify(token);
+            if (principal != null) {
+                // 6️⃣ Build the Spring principal + "ROLE_<role>" authorities once and cache them
+                verified = tokenCache.put(cacheKey, principal);
+            }
+        }
 
-            // 6️⃣ Convert role string into Spring’s "GrantedAuthority" format
-            // Spring expects roles as a list like [new SimpleGrantedAuthority("ROLE_ADMIN")]
-            List<SimpleGrantedAuthority> authorities =
-                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+        if (verified != null) {
 
             // 7️⃣ Build Authentication object that represents the logged-in user
-            // "User" is a built-in Spring Security model implementing UserDetails
+            // The principal is an AuthenticatedUser: Spring's "User" plus the user ID from the token
             UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(
-                            new User(email, "", authorities), // principal (user info)
-                            null,                                // credentials (none for JWT)
-                            authorities                          // granted authorities (roles)
+                            verified.getUser(),        // principal (user info)
+                            null,                      // credentials (none for JWT)
+                            verified.getAuthorities()  // granted authorities (roles)
                     );
 
             // 8️⃣ Add extra details (like client IP) for auditing/logging
@@ -0,0 +1,38 @@
+// ========================
+// PACKAGE DECLARATION
+// ========================
+package com.supermarket.supermarket_system.security;
+
+import java.time.Instant;
+
+// ========================
+// VALUE CLASS: JwtPrincipal
+// ========================
+// The identity carried by a verified JWT, extracted in a single parse:
+//   - userId    → the custom "uid" claim (null on tokens issued before it existed)
+//   - email     → the "sub" claim
+//   - role      → the custom "role" claim (e.g. "USER", "ADMIN")
+//   - expiresAt → the "exp" claim
+// Immutable, so it can be shared and cached safely.
+public final class JwtPrincipal {
+
+    private final Long userId;
+    private final String email;
+    private final String role;
+    private final Instant expiresAt;
+
+    public JwtPrincipal(Long userId, String email, String role, Instant expiresAt) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public String getEmail() { return email; }
+
+    public String getRole() { return role; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,146 @@
+// ========================
+// PACKAGE DECLARATION
+// ========================
+package com.supermarket.supermarket_system.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ========================
+// COMPONENT: LoginAttemptLimiter
+// ========================
+// Caps login attempts per email and per client IP in fixed time windows,
+// checked BEFORE any database lookup or BCrypt work, so brute-force bursts
+// are turned away cheaply.
+//   - Each key gets at most N attempts per window (email and IP limits differ,
+//     since many users can share one IP behind a NAT).
+//   - The IP is checked first: a blocked IP cannot create email windows, so one
+//     client cannot grow the map by cycling through emails. The IP is the
+//     client's own address, resolved from X-Forwarded-For behind a trusted proxy.
+//   - A successful login resets the email's counter.
+//   - At most max-tracked-keys windows are kept; beyond that the oldest window
+//     is dropped. Expired windows are purged on a schedule, not on the login path.
+@Component
+public class LoginAttemptLimiter {
+
+    // Attempts seen for one key in the current window
+    private static final class Window {
+        final long startMillis;
+        int attempts;
+
+        Window(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+
+    private final int maxPerEmail;
+    private final int maxPerIp;
+    private final long windowMillis;
+    private final int maxTrackedKeys;
+
+    // Insertion order = window start order, so the oldest window is always first
+    private final LinkedHashMap<String, Window> windows = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public LoginAttemptLimiter(
+            @Value("${supermarket.security.login-limit.per-email:10}") int maxPerEmail,
+            @Value("${supermarket.security.login-limit.per-ip:50}") int maxPerIp,
+            @Value("${supermarket.security.login-limit.window-seconds:60}") long windowSeconds,
+            @Value("${supermarket.security.login-limit.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerIp = maxPerIp;
+        this.windowMillis = windowSeconds * 1000;
+        this.maxTrackedKeys = Math.max(1, maxTrackedKeys);
+    }
+
+    /**
+     * Records an attempt for this IP and, if the IP is within its limit, this email.
+     *
+     * @return false if either limit is exceeded for the current window
+     */
+    public boolean tryAcquire(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        boolean allowed;
+        lock.lock();
+        try {
+            allowed = record("ip:" + clientIp, maxPerIp, now)
+                    && record("email:" + email, maxPerEmail, now);
+        } finally {
+            lock.unlock();
+        }
+        if (!allowed) {
+            blocked.incrementAndGet();
+        }
+        return allowed;
+    }
+
+    /**
+     * Clears the email's counter after a successful login
+     */
+    public void reset(String email) {
+        lock.lock();
+        try {
+            windows.remove("email:" + email);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops expired windows from the front; stops at the first live one
+    @Scheduled(fixedDelayString = "${supermarket.security.login-limit.purge-interval-ms:10000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Iterator<Window> it = windows.values().iterator();
+            while (it.hasNext() && now - it.next().startMillis >= windowMillis) {
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int tracked;
+        lock.lock();
+        try {
+            tracked = windows.size();
+        } finally {
+            lock.unlock();
+        }
+        return Map.of(
+                "trackedKeys", tracked,
+                "blocked", blocked.get(),
+                "evicted", evicted.get()
+        );
+    }
+
+    // Caller holds lock
+    private boolean record(String key, int limit, long now) {
+        Window window = windows.get(key);
+        if (window == null || now - window.startMillis >= windowMillis) {
+            // Re-inserted so the map stays ordered by window start
+            windows.remove(key);
+            if (windows.size() >= maxTrackedKeys) {
+                Iterator<Window> oldest = windows.values().iterator();
+                oldest.next();
+                oldest.remove();
+                evicted.incrementAndGet();
+            }
+            window = new Window(now);
+            windows.put(key, window);
+        }
+        window.attempts++;
+        return window.attempts <= limit;
+    }
+}
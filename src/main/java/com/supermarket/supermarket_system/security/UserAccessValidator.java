@@ -0,0 +1,68 @@
+// ========================
+// PACKAGE DECLARATION
+// ========================
+package com.supermarket.supermarket_system.security;
+
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+// ========================
+// COMPONENT: UserAccessValidator
+// ========================
+// Shared ownership check for per-user resources (carts, orders).
+// A request may access a user's data if it is that user or an ADMIN.
+//
+// The caller's user ID comes from the JWT "uid" claim, so the check is an
+// in-memory comparison. Only tokens issued before that claim existed fall
+// back to looking the caller up by email.
+@Component
+public class UserAccessValidator {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Validates that the authenticated user matches the userId or is an admin
+     *
+     * @param deniedMessage message of the AccessDeniedException thrown on mismatch
+     */
+    public void validateUserAccess(Long userId, String deniedMessage) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new AccessDeniedException("User not authenticated");
+        }
+
+        // Admins can access anything
+        if (isAdmin(auth)) {
+            return;
+        }
+
+        if (!userId.equals(currentUserId(auth))) {
+            throw new AccessDeniedException(deniedMessage);
+        }
+    }
+
+    /**
+     * Check if the given authentication has the ADMIN role
+     */
+    public boolean isAdmin(Authentication auth) {
+        return auth.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
+
+    private Long currentUserId(Authentication auth) {
+        if (auth.getPrincipal() instanceof AuthenticatedUser user && user.getUserId() != null) {
+            return user.getUserId();
+        }
+        // Legacy token without a "uid" claim: resolve the email from the token
+        return userRepository.findByEmail(auth.getName())
+                .map(User::getId)
+                .orElse(null);
+    }
+}
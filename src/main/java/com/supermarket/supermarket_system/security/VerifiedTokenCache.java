@@ -0,0 +1,171 @@
+// ========================
+// PACKAGE DECLARATION
+// ========================
+package com.supermarket.supermarket_system.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ========================
+// COMPONENT: VerifiedTokenCache
+// ========================
+// Remembers tokens that already passed signature verification, so a client
+// reusing the same bearer token skips the HMAC check and claim parsing.
+//
+//   - Keyed by a SHA-256 digest of the token (the raw token is never stored).
+//     Callers compute it once with keyOf() and pass it to get() and put().
+//   - Each entry expires at the token's own "exp" claim, so caching never
+//     extends a token's lifetime.
+//   - Entries hold the prebuilt Spring principal and authorities, so a hit
+//     allocates nothing but the per-request Authentication object.
+//   - Bounded LRU: when full, the least recently used token is evicted.
+//     Expired entries are swept on a schedule, not on the request path.
+@Component
+public class VerifiedTokenCache {
+
+    // A verified token's ready-to-use Spring Security identity
+    public static final class Entry {
+        private final AuthenticatedUser user;
+        private final List<GrantedAuthority> authorities;
+        private final long expiresAtMillis;
+
+        private Entry(JwtPrincipal principal) {
+            this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole()));
+            this.user = new AuthenticatedUser(principal.getUserId(), principal.getEmail(), authorities);
+            this.expiresAtMillis = principal.getExpiresAt() != null
+                    ? principal.getExpiresAt().toEpochMilli()
+                    : 0;
+        }
+
+        public AuthenticatedUser getUser() { return user; }
+
+        public List<GrantedAuthority> getAuthorities() { return authorities; }
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+
+    private final int maxEntries;
+    // Access-ordered, so the eldest entry is the least recently used one. Guarded by lock.
+    private final LinkedHashMap<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VerifiedTokenCache(@Value("${supermarket.security.token-cache.max-entries:50000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= VerifiedTokenCache.this.maxEntries) {
+                    return false;
+                }
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * The cache key for a token: its SHA-256 digest. Compute it once per request.
+     */
+    public String keyOf(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java runtime is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param key the token's {@link #keyOf} key
+     * @return the cached identity for this token, or null if it is not cached or has expired
+     */
+    public Entry get(String key) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        (entry != null ? hits : misses).incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Builds the identity for a freshly verified token and caches it,
+     * evicting the least recently used token if the cache is full
+     *
+     * @param key the token's {@link #keyOf} key
+     */
+    public Entry put(String key, JwtPrincipal principal) {
+        Entry entry = new Entry(principal);
+        if (entry.isExpired(System.currentTimeMillis()) || maxEntries <= 0) {
+            return entry;
+        }
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+        return entry;
+    }
+
+    // Drops tokens that expired without being looked up again
+    @Scheduled(fixedDelayString = "${supermarket.security.token-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            entries.values().removeIf(cached -> cached.isExpired(now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return Map.of(
+                "size", size,
+                "maxEntries", maxEntries,
+                "hits", hitCount,
+                "misses", misses.get(),
+                "evictions", evictions.get(),
+                "hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups
+        );
+    }
+}
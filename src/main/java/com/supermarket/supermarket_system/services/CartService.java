@@ -4,91 +4,142 @@ import com.supermarket.supermarket_system.models.Cart;
 import com.supermarket.supermarket_system.models.Item;
 import com.supermarket.supermarket_system.models.User;
 import com.supermarket.supermarket_system.repositories.CartRepository;
-import com.supermarket.supermarket_system.repositories.ItemRepository;
 import com.supermarket.supermarket_system.repositories.UserRepository;
+import com.supermarket.supermarket_system.security.UserAccessValidator;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class CartService {
 
     private final CartRepository cartRepo;
     private final UserRepository userRepo;
-    private final ItemRepository itemRepo;
+    private final ItemService itemService;
+    private final LineItemStore lineItems;
+    private final UserAccessValidator accessValidator;
+    private final OptimisticRetry optimisticRetry;
+    private final CartWriteBuffer writeBuffer;
 
     @Autowired
-    public CartService(CartRepository cartRepo, UserRepository userRepo, ItemRepository itemRepo) {
+    public CartService(CartRepository cartRepo, UserRepository userRepo, ItemService itemService,
+                       LineItemStore lineItems, UserAccessValidator accessValidator,
+                       OptimisticRetry optimisticRetry, CartWriteBuffer writeBuffer) {
         this.cartRepo = cartRepo;
         this.userRepo = userRepo;
-        this.itemRepo = itemRepo;
+        this.itemService = itemService;
+        this.lineItems = lineItems;
+        this.accessValidator = accessValidator;
+        this.optimisticRetry = optimisticRetry;
+        this.writeBuffer = writeBuffer;
     }
 
-    /**
-     * Validates that the authenticated user matches the userId
-     * or is an admin
-     */
     private void validateUserAccess(Long userId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        accessValidator.validateUserAccess(userId, "You can only access your own cart");
+    }
+
+    public Cart getCart(Long userId) {
+        validateUserAccess(userId);
 
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new AccessDeniedException("User not authenticated");
+        if (writeBuffer.isWriteBehind()) {
+            Cart buffered = writeBuffer.read(userId);
+            if (buffered != null) {
+                return buffered;
+            }
         }
+        return getCartWithoutValidation(userId);
+    }
 
-        // Check if user is admin
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    public Cart addItemToCart(Long userId, Long itemId, int quantity) {
+        validateUserAccess(userId);
 
-        if (isAdmin) {
-            return; // Admins can access any cart
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
         }
 
-        // Get email from JWT token
-        String tokenEmail = auth.getName();
+        return mutate("cart.addItem", userId, itemId, cart -> addLine(cart, itemId, quantity));
+    }
 
-        // Get user from database
-        Optional<User> targetUser = userRepo.findById(userId);
+    public Cart updateItemQuantity(Long userId, Long itemId, int quantity) {
+        validateUserAccess(userId);
 
-        if (targetUser.isEmpty()) {
-            throw new NoSuchElementException("User not found");
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
         }
 
-        // Compare emails
-        if (!tokenEmail.equals(targetUser.get().getEmail())) {
-            throw new AccessDeniedException("You can only access your own cart");
+        if (quantity == 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
         }
+
+        return mutate("cart.updateItem", userId, itemId, cart -> setLine(cart, itemId, quantity));
     }
 
-    public Cart getCart(Long userId) {
+    public Cart removeItem(Long userId, Long itemId) {
         validateUserAccess(userId);
 
-        return cartRepo.findByUserId(userId).orElseGet(() -> {
-            User user = userRepo.findById(userId)
-                    .orElseThrow(() -> new NoSuchElementException("User not found"));
-            Cart cart = new Cart(user);
-            return cartRepo.save(cart);
-        });
+        return mutate("cart.removeItem", userId, itemId, cart -> removeLine(cart, itemId));
     }
 
-    public Cart addItemToCart(Long userId, Long itemId, int quantity) {
+    public Cart clearCart(Long userId) {
         validateUserAccess(userId);
 
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Quantity must be positive");
+        if (writeBuffer.isWriteBehind()) {
+            Cart buffered = writeBuffer.update(userId, () -> getCartWithoutValidation(userId), Cart::clearCart);
+            if (buffered != null) {
+                return buffered;
+            }
         }
+        return optimisticRetry.inTransaction("cart.clear", () -> clearCartOnce(userId));
+    }
 
+    private Cart clearCartOnce(Long userId) {
         Cart cart = getCartWithoutValidation(userId);
+        cart.clearCart();
+
+        if (lineItems.isRelational()) {
+            updateTotalPrice(cart);
+            lineItems.clearCartLines(cart);
+            return cart;
+        }
+        return cartRepo.save(cart);
+    }
+
+    /**
+     * Applies a one-line change. With write-behind the change goes to the user's
+     * buffered cart and is written later; otherwise it is saved now, in its own
+     * transaction, retried on a version conflict.
+     *
+     * @param change validates and applies the change, returning the item's unit price
+     */
+    private Cart mutate(String operation, Long userId, Long itemId, Function<Cart, Double> change) {
+        if (writeBuffer.isWriteBehind()) {
+            Cart buffered = writeBuffer.update(userId, () -> getCartWithoutValidation(userId), cart -> {
+                change.apply(cart);
+                cart.setTotalPrice(calculateTotal(cart));
+            });
+            if (buffered != null) {
+                return buffered;
+            }
+            // Buffer full: fall through and write this change directly
+        }
+        return optimisticRetry.inTransaction(operation, () -> {
+            Cart cart = getCartWithoutValidation(userId);
+            Double unitPrice = change.apply(cart);
+            return saveLine(cart, itemId, unitPrice);
+        });
+    }
 
-        Item item = itemRepo.findById(itemId)
+    private Double addLine(Cart cart, Long itemId, int quantity) {
+        Item item = itemService.findById(itemId)
                 .orElseThrow(() -> new NoSuchElementException("Item not found"));
 
         // Get current quantity in cart (if any)
-        int currentQuantity = cart.getItems().getOrDefault(itemId, 0);
+        int currentQuantity = cart.getItems().getQuantity(itemId);
         int newTotalQuantity = currentQuantity + quantity;
 
         // Validate against available stock
@@ -100,24 +151,11 @@ public class CartService {
         }
 
         cart.addItem(itemId, quantity);
-        cart.setTotalPrice(calculateTotal(cart));
-        return cartRepo.save(cart);
+        return item.getPrice();
     }
 
-    public Cart updateItemQuantity(Long userId, Long itemId, int quantity) {
-        validateUserAccess(userId);
-
-        if (quantity < 0) {
-            throw new IllegalArgumentException("Quantity cannot be negative");
-        }
-
-        if (quantity == 0) {
-            throw new IllegalArgumentException("Quantity must be greater than 0");
-        }
-
-        Cart cart = getCartWithoutValidation(userId);
-
-        Item item = itemRepo.findById(itemId)
+    private Double setLine(Cart cart, Long itemId, int quantity) {
+        Item item = itemService.findById(itemId)
                 .orElseThrow(() -> new NoSuchElementException("Item not found"));
 
         // Validate the new quantity against available stock
@@ -129,55 +167,75 @@ public class CartService {
         }
 
         cart.updateItemQuantity(itemId, quantity);
-        cart.setTotalPrice(calculateTotal(cart));
-        return cartRepo.save(cart);
+        return item.getPrice();
     }
 
-    public Cart removeItem(Long userId, Long itemId) {
-        validateUserAccess(userId);
-
-        Cart cart = getCartWithoutValidation(userId);
-
-        if (!cart.getItems().containsKey(itemId)) {
+    private Double removeLine(Cart cart, Long itemId) {
+        if (!cart.getItems().containsItem(itemId)) {
             throw new NoSuchElementException("Item not found in cart");
         }
 
         cart.removeItem(itemId);
-        cart.setTotalPrice(calculateTotal(cart));
-        return cartRepo.save(cart);
+        return null;
     }
 
-    public Cart clearCart(Long userId) {
-        validateUserAccess(userId);
+    /**
+     * Persists a change to one line of the cart along with the new total.
+     * With relational line items this is a single-row upsert/delete plus a total
+     * update; otherwise the whole cart (including the JSON items column) is saved.
+     * Either way the cart's version is checked, so a concurrent change to the same
+     * cart fails this attempt instead of being overwritten.
+     */
+    private Cart saveLine(Cart cart, Long itemId, Double unitPrice) {
+        cart.setTotalPrice(calculateTotal(cart));
 
-        Cart cart = getCartWithoutValidation(userId);
-        cart.clearCart();
+        if (lineItems.isRelational()) {
+            updateTotalPrice(cart);
+            lineItems.saveCartLine(cart, itemId, unitPrice);
+            return cart;
+        }
         return cartRepo.save(cart);
     }
 
+    // Version-checked total update used in relational mode, where the cart is detached
+    private void updateTotalPrice(Cart cart) {
+        if (cartRepo.updateTotalPrice(cart.getId(), cart.getTotalPrice(), cart.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Cart.class, cart.getId());
+        }
+    }
+
     /**
      * Internal method to get cart without validation
      * Used after validation has already been performed
      */
     private Cart getCartWithoutValidation(Long userId) {
-        return cartRepo.findByUserId(userId).orElseGet(() -> {
+        Cart cart = cartRepo.findByUserId(userId).orElseGet(() -> {
             User user = userRepo.findById(userId)
                     .orElseThrow(() -> new NoSuchElementException("User not found"));
-            Cart cart = new Cart(user);
-            return cartRepo.save(cart);
+            return cartRepo.save(new Cart(user));
         });
+        return lineItems.withLines(cart);
     }
 
+    /**
+     * Recalculates the cart total with a single bulk price lookup
+     * (served from the item cache where possible), so the number of
+     * queries does not grow with the number of lines
+     */
     private double calculateTotal(Cart cart) {
+        if (cart.getItems().isEmpty()) {
+            return 0.0;
+        }
+
+        Map<Long, Double> prices = new HashMap<>();
+        for (Item item : itemService.findAllById(cart.getItems().keySet()).values()) {
+            if (item.getPrice() != null) {
+                prices.put(item.getId(), item.getPrice());
+            }
+        }
+
         return cart.getItems().entrySet().stream()
-                .mapToDouble(entry -> {
-                    Long id = entry.getKey();
-                    int qty = entry.getValue();
-                    double price = itemRepo.findById(id)
-                            .map(Item::getPrice)
-                            .orElse(0.0);
-                    return price * qty;
-                })
+                .mapToDouble(entry -> prices.getOrDefault(entry.getKey(), 0.0) * entry.getValue())
                 .sum();
     }
 }
\ No newline at end of file
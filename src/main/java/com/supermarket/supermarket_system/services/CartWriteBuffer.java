@@ -0,0 +1,344 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Cart;
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.repositories.CartRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind layer for carts (supermarket.cart.durability=WRITE_BEHIND).
+ *
+ * Cart mutations are applied to an in-memory copy of the user's cart and marked
+ * dirty; the coalesced state is written to the database every flush-interval-ms,
+ * before checkout, and when the cart is evicted. Five "+" taps in one interval
+ * become one row write.
+ *
+ * Each user's cart has its own lock, so mutations, reads, flushes and checkout
+ * for the same user are serialized while different users never block each other.
+ * Reads of a buffered cart return a copy of the in-memory state, so a user always
+ * sees their own latest changes.
+ *
+ * Trade-off: changes made since the last flush are lost if the process dies, and
+ * a user's cart must be served by a single instance. A flush that hits a version
+ * conflict (the row was changed elsewhere) reloads the stored cart and replays
+ * the buffered changes on top of it. A cart is only evicted once it is clean, so
+ * a failing flush keeps its changes buffered and retries them on the next flush.
+ * With WRITE_THROUGH (the default) this class is bypassed.
+ */
+@Service
+public class CartWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(CartWriteBuffer.class);
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    // One user's buffered cart. Guarded by lock; evicted entries are never reused.
+    private static final class Entry {
+        final ReentrantLock lock = new ReentrantLock();
+        Cart cart;
+        Supplier<Cart> loader;
+        List<Consumer<Cart>> pending = new ArrayList<>();  // changes not yet flushed, in order
+        boolean dirty;
+        boolean evicted;
+        volatile long lastAccessMillis = System.currentTimeMillis();
+    }
+
+    private final CartRepository cartRepo;
+    private final LineItemStore lineItems;
+    private final ItemService itemService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private final boolean writeBehind;
+    private final int maxBuffered;
+    private final long idleMillis;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong mutations = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+
+    public CartWriteBuffer(CartRepository cartRepo, LineItemStore lineItems, ItemService itemService,
+                           TransactionTemplate transactionTemplate, EntityManager entityManager,
+                           @Value("${supermarket.cart.durability:WRITE_THROUGH}") String durability,
+                           @Value("${supermarket.cart.max-buffered:10000}") int maxBuffered,
+                           @Value("${supermarket.cart.idle-evict-ms:300000}") long idleMillis) {
+        if (!durability.equalsIgnoreCase("WRITE_THROUGH") && !durability.equalsIgnoreCase("WRITE_BEHIND")) {
+            throw new IllegalStateException(
+                    "supermarket.cart.durability must be WRITE_THROUGH or WRITE_BEHIND, got: " + durability);
+        }
+        this.cartRepo = cartRepo;
+        this.lineItems = lineItems;
+        this.itemService = itemService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.writeBehind = durability.equalsIgnoreCase("WRITE_BEHIND");
+        this.maxBuffered = maxBuffered;
+        this.idleMillis = idleMillis;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Applies a change to the user's buffered cart, loading it first if needed.
+     * The change must validate before it mutates: if it throws, earlier buffered
+     * changes are kept as they are.
+     *
+     * @return a copy of the updated cart, or null if the buffer is full and the
+     *         caller should write the change through instead
+     */
+    public Cart update(Long userId, Supplier<Cart> loader, Consumer<Cart> change) {
+        if (!entries.containsKey(userId) && entries.size() >= maxBuffered) {
+            return null;
+        }
+
+        Entry entry = lock(userId);
+        try {
+            entry.loader = loader;
+            if (entry.cart == null) {
+                entry.cart = detached(loader.get());
+            }
+            change.accept(entry.cart);
+            entry.pending.add(change);
+            entry.dirty = true;
+            mutations.incrementAndGet();
+            return entry.cart.snapshot();
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * @return a copy of the user's buffered cart, or null if it is not buffered
+     */
+    public Cart read(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        entry.lock.lock();
+        try {
+            entry.lastAccessMillis = System.currentTimeMillis();
+            return entry.evicted || entry.cart == null ? null : entry.cart.snapshot();
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes and evicts the user's buffered cart, then runs the action while
+     * still holding the user's lock, so no buffered change can land in between
+     * (used around checkout, which reads and clears the cart in the database).
+     *
+     * @throws IllegalStateException if buffered changes could not be written; the
+     *         action is not run, so checkout never sees a partly saved cart
+     */
+    public <T> T exclusive(Long userId, Supplier<T> action) {
+        if (!writeBehind) {
+            return action.get();
+        }
+        Entry entry = lock(userId);
+        try {
+            if (entry.dirty && !flush(userId, entry)) {
+                throw new IllegalStateException("Your cart could not be saved, please try again");
+            }
+            evict(userId, entry);
+            return action.get();
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every dirty cart, then evicts carts idle for longer than
+     * idle-evict-ms and, if still over max-buffered, the least recently used ones.
+     * Carts whose flush failed stay buffered.
+     */
+    @Scheduled(fixedDelayString = "${supermarket.cart.flush-interval-ms:2000}")
+    public void flushDirty() {
+        if (!writeBehind) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.forEach((userId, entry) -> {
+            boolean idle = now - entry.lastAccessMillis > idleMillis;
+            if (!entry.dirty && !idle) {
+                return;
+            }
+            flushAndMaybeEvict(userId, entry, idle);
+        });
+
+        int excess = entries.size() - maxBuffered;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccessMillis))
+                    .limit(excess)
+                    .forEach(e -> flushAndMaybeEvict(e.getKey(), e.getValue(), true));
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        entries.forEach((userId, entry) -> {
+            entry.lock.lock();
+            try {
+                if (!entry.evicted && entry.dirty) {
+                    flush(userId, entry);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writeBehind", writeBehind);
+        stats.put("buffered", entries.size());
+        stats.put("mutations", mutations.get());
+        stats.put("flushes", flushes.get());
+        stats.put("conflicts", conflicts.get());
+        return stats;
+    }
+
+    // ----------------------
+    // INTERNALS
+    // ----------------------
+
+    // Returns the user's live entry with its lock held
+    private Entry lock(Long userId) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(userId, id -> new Entry());
+            entry.lock.lock();
+            if (!entry.evicted) {
+                entry.lastAccessMillis = System.currentTimeMillis();
+                return entry;
+            }
+            // Evicted between lookup and lock: retry with the replacement entry
+            entry.lock.unlock();
+        }
+    }
+
+    // Evicts only a clean cart: a dirty one holds the only copy of its changes
+    private void flushAndMaybeEvict(Long userId, Entry entry, boolean evict) {
+        entry.lock.lock();
+        try {
+            if (entry.evicted) {
+                return;
+            }
+            if (entry.dirty) {
+                flush(userId, entry);
+            }
+            if (evict && !entry.dirty) {
+                evict(userId, entry);
+            }
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered cart. On a version conflict the stored cart is reloaded
+     * and the buffered changes are replayed on it before trying again.
+     * Caller holds entry.lock.
+     *
+     * @return true if the cart is clean afterwards; false leaves it dirty for the next flush
+     */
+    private boolean flush(Long userId, Entry entry) {
+        for (int attempt = 1; ; attempt++) {
+            Cart cart = entry.cart;
+            try {
+                entry.cart = transactionTemplate.execute(status -> {
+                    Cart saved = cartRepo.save(cart);
+                    lineItems.replaceCartLines(saved, unitPrices(saved));
+                    return saved;
+                });
+                entry.dirty = false;
+                entry.pending.clear();
+                flushes.incrementAndGet();
+                return true;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt == MAX_FLUSH_ATTEMPTS) {
+                    log.warn("Buffered cart of user {} keeps conflicting; retrying on the next flush", userId);
+                    return false;
+                }
+                try {
+                    rebase(userId, entry);
+                } catch (RuntimeException reloadFailure) {
+                    log.error("Failed to reload cart of user {}", userId, reloadFailure);
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to flush buffered cart of user {}", userId, e);
+                return false;
+            }
+        }
+    }
+
+    // Replays the unflushed changes on the stored cart. Caller holds entry.lock.
+    private void rebase(Long userId, Entry entry) {
+        Cart stored = detached(transactionTemplate.execute(status -> entry.loader.get()));
+        List<Consumer<Cart>> replayed = new ArrayList<>(entry.pending.size());
+        for (Consumer<Cart> change : entry.pending) {
+            try {
+                change.accept(stored);
+                replayed.add(change);
+            } catch (RuntimeException e) {
+                // Validates before mutating, so the cart is unchanged; the same change
+                // would have been rejected had it been written through
+                log.warn("Dropping buffered change to cart of user {} that no longer applies: {}",
+                        userId, e.getMessage());
+            }
+        }
+        entry.cart = stored;
+        entry.pending = replayed;
+    }
+
+    // Caller holds entry.lock
+    private void evict(Long userId, Entry entry) {
+        entry.evicted = true;
+        entries.remove(userId, entry);
+    }
+
+    private Map<Long, Double> unitPrices(Cart cart) {
+        Map<Long, Double> prices = new HashMap<>();
+        if (lineItems.isRelational()) {
+            for (Item item : itemService.findAllById(cart.getItems().keySet()).values()) {
+                prices.put(item.getId(), item.getPrice());
+            }
+        }
+        return prices;
+    }
+
+    // Buffered carts must not be flushed by whatever transaction the request runs next
+    private Cart detached(Cart cart) {
+        if (entityManager.contains(cart)) {
+            entityManager.detach(cart);
+        }
+        return cart;
+    }
+}
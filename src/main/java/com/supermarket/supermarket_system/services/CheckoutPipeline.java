@@ -0,0 +1,236 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.exceptions.TooManyRequestsException;
+import com.supermarket.supermarket_system.models.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entry point for checkout, optionally asynchronous (supermarket.checkout.async=true).
+ *
+ * In async mode {@link #checkout} only records the cart as a PENDING order and clears the cart,
+ * then hands the order ID to a worker; the client gets the ID back immediately
+ * and polls GET /orders/{orderId}/details until the status is SHIPPING or FAILED.
+ *
+ * Orders are partitioned by their lowest item ID, one queue and one worker thread
+ * per partition; a re-queued order keeps its partition. A worker drains up to
+ * batch-size queued orders at a time and completes them in one transaction, with a
+ * single stock reservation batch for all their lines. An order that cannot be
+ * filled is marked FAILED in that transaction without affecting the others. If the
+ * batch transaction itself fails, each order is retried in its own transaction.
+ *
+ * The queue is in memory: PENDING orders left by a restart are re-queued once the
+ * application is ready. This runs whether or not async mode is enabled, so orders
+ * accepted before switching it off are still completed.
+ */
+@Service
+public class CheckoutPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutPipeline.class);
+
+    private final OrderService orderService;
+    private final OptimisticRetry optimisticRetry;
+    private final CartWriteBuffer cartWriteBuffer;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxQueued;
+
+    // An order ID and the partition it was first queued on
+    private record Queued(Long orderId, long partitionKey) {
+    }
+
+    private final List<BlockingQueue<Queued>> partitions = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public CheckoutPipeline(OrderService orderService,
+                            OptimisticRetry optimisticRetry,
+                            CartWriteBuffer cartWriteBuffer,
+                            Environment environment,
+                            @Value("${supermarket.checkout.async:false}") boolean enabled,
+                            @Value("${supermarket.checkout.workers:4}") int workerCount,
+                            @Value("${supermarket.checkout.batch-size:20}") int batchSize,
+                            @Value("${supermarket.checkout.max-queued:10000}") int maxQueued) {
+        this.orderService = orderService;
+        this.optimisticRetry = optimisticRetry;
+        this.cartWriteBuffer = cartWriteBuffer;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxQueued = maxQueued;
+
+        // Workers make blocking JDBC calls, so they follow
+        // spring.threads.virtual.enabled like the request threads do
+        ThreadFactory threads = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("checkout-worker-").getVirtualThreadFactory()
+                : platformThreads("checkout-worker-");
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            BlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+            partitions.add(queue);
+            workers.add(threads.newThread(() -> drain(queue)));
+        }
+    }
+
+    @PostConstruct
+    public void startWorkers() {
+        workers.forEach(Thread::start);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks out the user's cart. Synchronous mode returns the completed order.
+     * Async mode returns it PENDING and queues it, or rejects it with
+     * {@link TooManyRequestsException} while the queues are full.
+     *
+     * Buffered cart changes are flushed first, and no new ones are accepted for
+     * this user until the checkout transaction has committed.
+     */
+    public Order checkout(Long userId, String paymentMethod) {
+        if (!enabled) {
+            return cartWriteBuffer.exclusive(userId, () -> orderService.createOrderFromCart(userId, paymentMethod));
+        }
+        if (queued.get() >= maxQueued) {
+            throw new TooManyRequestsException("Checkout is busy, please try again shortly");
+        }
+
+        // Committed before it is queued, so a worker always finds the order
+        Order order = cartWriteBuffer.exclusive(userId, () -> orderService.acceptOrderFromCart(userId, paymentMethod));
+        accepted.incrementAndGet();
+        enqueue(order.getId(), lowestItemId(order));
+        return order;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeuePendingOrders() {
+        List<Order> pending = orderService.findPendingOrders();
+        if (!pending.isEmpty()) {
+            log.info("Re-queueing {} pending checkouts", pending.size());
+        }
+        pending.forEach(order -> enqueue(order.getId(), lowestItemId(order)));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queued", queued.get());
+        stats.put("partitionDepths", partitions.stream().map(BlockingQueue::size).toList());
+        stats.put("accepted", accepted.get());
+        stats.put("processed", processed.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void enqueue(Long orderId, long partitionKey) {
+        queued.incrementAndGet();
+        partitions.get((int) Math.floorMod(partitionKey, (long) partitions.size()))
+                .add(new Queued(orderId, partitionKey));
+    }
+
+    private static ThreadFactory platformThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static long lowestItemId(Order order) {
+        long[] lowest = {Long.MAX_VALUE};
+        order.getItems().forEachLine((itemId, quantity) -> lowest[0] = Math.min(lowest[0], itemId));
+        return lowest[0];
+    }
+
+    private void drain(BlockingQueue<Queued> queue) {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            if (!processBatch(batch)) {
+                batch.forEach(this::process);
+            }
+            queued.addAndGet(-batch.size());
+            batch.clear();
+        }
+    }
+
+    // All orders in one transaction; false if it rolled back and each order needs its own
+    private boolean processBatch(List<Queued> batch) {
+        List<Long> orderIds = batch.stream().map(Queued::orderId).toList();
+        Map<Long, String> failures;
+        try {
+            failures = optimisticRetry.inTransaction("checkout.batch",
+                    () -> orderService.completePendingOrders(orderIds));
+        } catch (RuntimeException e) {
+            log.warn("Checkout batch of {} orders failed, processing them one by one: {}", batch.size(), e.getMessage());
+            return false;
+        }
+        failures.forEach((orderId, reason) -> log.info("Checkout of order {} failed: {}", orderId, reason));
+        processed.addAndGet(batch.size() - failures.size());
+        failed.addAndGet(failures.size());
+        return true;
+    }
+
+    private void process(Queued entry) {
+        Long orderId = entry.orderId();
+        try {
+            optimisticRetry.inTransaction("checkout.process", () -> {
+                orderService.completePendingOrder(orderId);
+                return null;
+            });
+            processed.incrementAndGet();
+        } catch (OptimisticLockingFailureException e) {
+            // Still contended after retries: try again after the rest of the queue
+            log.warn("Checkout of order {} kept conflicting, re-queueing", orderId);
+            enqueue(orderId, entry.partitionKey());
+        } catch (RuntimeException e) {
+            // Insufficient stock, deleted item, ...: the reservation was rolled back
+            log.info("Checkout of order {} failed: {}", orderId, e.getMessage());
+            try {
+                optimisticRetry.inTransaction("checkout.fail", () -> {
+                    orderService.failPendingOrder(orderId);
+                    return null;
+                });
+                failed.incrementAndGet();
+            } catch (RuntimeException markFailure) {
+                log.error("Could not mark order {} as FAILED; it stays PENDING until restart", orderId, markFailure);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.CatalogSnapshot;
+import com.supermarket.supermarket_system.models.Item;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache of catalog items by ID, plus the serialized full catalog
+ * ({@link CatalogSnapshot}).
+ *
+ * Every invalidation bumps a generation counter. Loaders read the generation
+ * before going to the database and only store their result if it is unchanged,
+ * so a slow load can never put back a value that a concurrent write invalidated.
+ *
+ * Items are stored as detached {@link Item#snapshot} copies and every read gets
+ * its own copy, so no caller ever holds a managed entity or another caller's object.
+ */
+class ItemCache {
+
+    private final int maxEntries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Item> entries;
+
+    private volatile CatalogSnapshot catalog;
+    private final AtomicLong generation = new AtomicLong();
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong catalogHits = new AtomicLong();
+    private final AtomicLong catalogMisses = new AtomicLong();
+
+    ItemCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        // Access order turns the LinkedHashMap into an LRU list
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Item> eldest) {
+                if (size() > ItemCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * @return a copy of the cached item, or null on a miss
+     */
+    Item get(Long id) {
+        Item item;
+        lock.lock();
+        try {
+            item = entries.get(id);
+        } finally {
+            lock.unlock();
+        }
+        (item != null ? hits : misses).incrementAndGet();
+        return item != null ? item.snapshot() : null;
+    }
+
+    /**
+     * Stores items loaded while the cache was at the given generation
+     */
+    void putItems(Collection<Item> items, long loadedAtGeneration) {
+        lock.lock();
+        try {
+            if (generation.get() != loadedAtGeneration) return;
+            for (Item item : items) {
+                entries.put(item.getId(), item.snapshot());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the current catalog snapshot, or null on a miss
+     */
+    CatalogSnapshot getCatalog() {
+        CatalogSnapshot snapshot = catalog;
+        (snapshot != null ? catalogHits : catalogMisses).incrementAndGet();
+        return snapshot;
+    }
+
+    /**
+     * Same as {@link #getCatalog} without counting a lookup, for re-checks under a lock
+     */
+    CatalogSnapshot currentCatalog() {
+        return catalog;
+    }
+
+    void putCatalog(CatalogSnapshot snapshot, long loadedAtGeneration) {
+        lock.lock();
+        try {
+            if (generation.get() != loadedAtGeneration) return;
+            catalog = snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidate(Collection<Long> ids) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            ids.forEach(entries::remove);
+            catalog = null;
+        } finally {
+            lock.unlock();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    Map<String, Object> stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        CatalogSnapshot snapshot = catalog;
+        return Map.of(
+                "catalogVersion", snapshot != null ? snapshot.getVersion() : -1,
+                "size", size,
+                "maxEntries", maxEntries,
+                "hits", hitCount,
+                "misses", misses.get(),
+                "hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                "evictions", evictions.get(),
+                "invalidations", invalidations.get(),
+                "catalogHits", catalogHits.get(),
+                "catalogMisses", catalogMisses.get()
+        );
+    }
+}
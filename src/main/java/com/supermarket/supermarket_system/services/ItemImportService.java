@@ -0,0 +1,360 @@
+package com.supermarket.supermarket_system.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.supermarket_system.models.ItemImportReport;
+import com.supermarket.supermarket_system.repositories.ItemImportRepository;
+import com.supermarket.supermarket_system.repositories.ItemImportRepository.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bulk item upsert from a CSV or NDJSON upload (POST /items/import).
+ *
+ * The upload is read one line at a time and never held in memory as a whole.
+ * Valid rows are collected into chunks; each chunk is one transaction with one
+ * existence query and JDBC batches for its updates and inserts. A chunk the
+ * database rejects is retried row by row so only the offending rows fail.
+ *
+ * Rows with an id update that item (empty fields keep their current value);
+ * rows without an id insert a new item and need at least a name. Rows that
+ * fail validation or reference an unknown id are reported by line number.
+ *
+ * Imported rows bypass {@link ItemService}, so after each chunk commits the
+ * items it wrote are evicted from the cache and re-read into the search index
+ * and suggester; readers never see a committed chunk through stale copies.
+ */
+@Service
+public class ItemImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final List<String> COLUMNS = List.of("id", "name", "price", "quantity", "category", "description");
+    private static final int MAX_TEXT_LENGTH = 255; // VARCHAR(255) columns
+
+    private final ItemImportRepository importRepository;
+    private final ItemService itemService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    // Written rows of one committed chunk, plus the rows it rejected
+    private record ChunkResult(List<Long> insertedIds, List<Long> updatedIds, List<ItemImportReport.RowError> errors) {}
+
+    @Autowired
+    public ItemImportService(ItemImportRepository importRepository, ItemService itemService,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${supermarket.import.batch-size:1000}") int batchSize) {
+        this.importRepository = importRepository;
+        this.itemService = itemService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the CSV header is missing or names unknown columns
+     */
+    public ItemImportReport importItems(Reader input, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(input, 64 * 1024);
+        ItemImportReport report = new ItemImportReport();
+
+        int lineNumber = 0;
+        List<String> header = null;
+        if (format == Format.CSV) {
+            header = readHeader(reader.readLine());
+            lineNumber = 1;
+        }
+
+        List<Row> chunk = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.rowRead();
+            try {
+                chunk.add(format == Format.CSV ? parseCsvRow(lineNumber, line, header) : parseJsonRow(lineNumber, line));
+            } catch (IllegalArgumentException e) {
+                report.addError(lineNumber, e.getMessage());
+                continue;
+            }
+            if (chunk.size() == batchSize) {
+                itemService.refreshWritten(writeChunk(chunk, report));
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            itemService.refreshWritten(writeChunk(chunk, report));
+        }
+        return report;
+    }
+
+    // ----------------------
+    // WRITING
+    // ----------------------
+
+    /**
+     * @return the IDs of the items written and committed
+     */
+    private List<Long> writeChunk(List<Row> rows, ItemImportReport report) {
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> writeRows(rows));
+        } catch (DataAccessException | TransactionException e) {
+            if (rows.size() == 1) {
+                report.addError(rows.get(0).line(), "Rejected by the database: "
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                return List.of();
+            }
+            // Rolled back as a whole: find the offending rows one at a time
+            List<Long> written = new ArrayList<>();
+            for (Row row : rows) {
+                written.addAll(writeChunk(List.of(row), report));
+            }
+            return written;
+        }
+
+        report.addInserted(result.insertedIds().size());
+        report.addUpdated(result.updatedIds().size());
+        result.errors().forEach(error -> report.addError(error.line(), error.message()));
+
+        List<Long> written = new ArrayList<>(result.insertedIds());
+        written.addAll(result.updatedIds());
+        return written;
+    }
+
+    private ChunkResult writeRows(List<Row> rows) {
+        List<Long> ids = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.id() != null) ids.add(row.id());
+        }
+        Set<Long> existing = importRepository.existingIds(ids);
+
+        List<Row> updates = new ArrayList<>();
+        List<Row> inserts = new ArrayList<>();
+        List<ItemImportReport.RowError> errors = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.id() == null) {
+                inserts.add(row);
+            } else if (existing.contains(row.id())) {
+                updates.add(row);
+            } else {
+                errors.add(new ItemImportReport.RowError(row.line(), "Item not found with id: " + row.id()));
+            }
+        }
+
+        // Same lock order as checkout's stock updates
+        updates.sort(Comparator.comparing(Row::id));
+        List<Long> updatedIds = new ArrayList<>(updates.size());
+        if (!updates.isEmpty()) {
+            boolean[] updated = importRepository.updateAll(updates);
+            for (int i = 0; i < updated.length; i++) {
+                Row row = updates.get(i);
+                if (updated[i]) {
+                    updatedIds.add(row.id());
+                } else { // deleted since the existence check
+                    errors.add(new ItemImportReport.RowError(row.line(), "Item not found with id: " + row.id()));
+                }
+            }
+        }
+        List<Long> insertedIds = inserts.isEmpty() ? List.of() : importRepository.insertAll(inserts);
+        return new ChunkResult(insertedIds, updatedIds, errors);
+    }
+
+    // ----------------------
+    // PARSING
+    // ----------------------
+
+    static List<String> readHeader(String line) {
+        if (line == null) {
+            throw new IllegalArgumentException("CSV file is empty; expected a header line");
+        }
+        if (!line.isEmpty() && line.charAt(0) == '\uFEFF') { // byte order mark
+            line = line.substring(1);
+        }
+        List<String> header = new ArrayList<>();
+        for (String column : splitCsvLine(line)) {
+            String name = column.trim().toLowerCase(Locale.ROOT);
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + column + "'; expected some of " + COLUMNS);
+            }
+            if (header.contains(name)) {
+                throw new IllegalArgumentException("Duplicate column '" + column + "'");
+            }
+            header.add(name);
+        }
+        if (!header.contains("id") && !header.contains("name")) {
+            throw new IllegalArgumentException("CSV header needs an id or a name column");
+        }
+        return header;
+    }
+
+    private Row parseCsvRow(int line, String text, List<String> header) {
+        List<String> fields = splitCsvLine(text);
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields, found " + fields.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String value = fields.get(i).trim();
+            values.put(header.get(i), value.isEmpty() ? null : value);
+        }
+        return toRow(line,
+                parseNumber(values.get("id"), "id", Long::valueOf),
+                values.get("name"),
+                parseNumber(values.get("price"), "price", Double::valueOf),
+                parseNumber(values.get("quantity"), "quantity", Integer::valueOf),
+                values.get("category"),
+                values.get("description"));
+    }
+
+    private Row parseJsonRow(int line, String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'");
+            }
+        }
+
+        JsonNode id = node.get("id");
+        JsonNode price = node.get("price");
+        JsonNode quantity = node.get("quantity");
+        return toRow(line,
+                isNull(id) ? null : requireType(id.canConvertToLong() && id.isIntegralNumber(), "id", id).asLong(),
+                text(node, "name"),
+                isNull(price) ? null : requireType(price.isNumber(), "price", price).asDouble(),
+                isNull(quantity) ? null : requireType(quantity.canConvertToInt() && quantity.isIntegralNumber(), "quantity", quantity).asInt(),
+                text(node, "category"),
+                text(node, "description"));
+    }
+
+    static Row toRow(int line, Long id, String name, Double price, Integer quantity,
+                             String category, String description) {
+        if (id != null && id <= 0) {
+            throw new IllegalArgumentException("id must be positive");
+        }
+        if (id == null && (name == null || name.isBlank())) {
+            throw new IllegalArgumentException("name is required for new items");
+        }
+        if (name != null && name.isBlank()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+        if (price != null && (price < 0 || price.isNaN() || price.isInfinite())) {
+            throw new IllegalArgumentException("price must be a non-negative number");
+        }
+        if (quantity != null && quantity < 0) {
+            throw new IllegalArgumentException("quantity must not be negative");
+        }
+        checkLength("name", name);
+        checkLength("category", category);
+        checkLength("description", description);
+        if (id != null && name == null && price == null && quantity == null && category == null && description == null) {
+            throw new IllegalArgumentException("Nothing to update for id " + id);
+        }
+        return new Row(line, id, name, price, quantity, category, description);
+    }
+
+    private static void checkLength(String field, String value) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private static <T> T parseNumber(String value, String field, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": '" + value + "'");
+        }
+    }
+
+    private static boolean isNull(JsonNode node) {
+        return node == null || node.isNull();
+    }
+
+    private static JsonNode requireType(boolean valid, String field, JsonNode node) {
+        if (!valid) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + node);
+        }
+        return node;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (isNull(value)) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return value.asText();
+    }
+
+    /**
+     * Splits one CSV record: comma separated, fields optionally in double quotes
+     * with "" for a literal quote. Quoted fields may not span lines.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field (fields may not contain line breaks)");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,386 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over item name, description and category, used by
+ * /items/search. Owned by {@link ItemService}, which keeps it in step with writes.
+ *
+ * Every indexed item is a document with a dense number. A term's postings are the
+ * numbers of the documents containing it, in ascending order: new documents always
+ * get the next number, so postings stay sorted by appending. Re-indexing an item
+ * adds a new document and marks the old one dead; dead documents are skipped by
+ * queries and dropped by an occasional compaction.
+ *
+ * Queries turn each token's postings into a bitset over all documents and AND them
+ * together, so cost grows with posting sizes and catalog size / 64, never with
+ * the number of distinct terms. The last query token is matched as a prefix
+ * (search-as-you-type) through the sorted term dictionary. Matches are ranked by
+ * how many tokens hit the item name (a second, name-only dictionary), and the
+ * per-match loop only touches primitive arrays: categories are small int codes.
+ *
+ * Searches share a read lock; writes take the write lock.
+ */
+final class ItemSearchIndex {
+
+    /**
+     * Item IDs of one result page, the total match count and per-category counts
+     */
+    record Result(List<Long> itemIds, int total, Map<String, Integer> categories) {}
+
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    // Document numbers containing one term, ascending
+    private static final class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(docs[i]);
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();      // name, description, category
+    private final TreeMap<String, Postings> nameTerms = new TreeMap<>();  // name only, for ranking
+    private final Map<Long, Integer> docByItem = new HashMap<>();
+
+    // Category dictionary: code -> name and back
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+
+    // Per document, indexed by document number
+    private long[] itemIds = new long[1024];
+    private long[] versions = new long[1024];
+    private double[] prices = new double[1024];   // NaN when the item has no price
+    private int[] categories = new int[1024];     // category code, -1 for none
+    private final BitSet alive = new BitSet();
+    private int nextDoc;
+    private int deadDocs;
+
+    // Non-null while the initial load runs: items deleted meanwhile must not come back
+    private Set<Long> deletedDuringLoad;
+
+    // ----------------------
+    // WRITES
+    // ----------------------
+
+    /**
+     * Indexes the item, replacing any earlier version of it
+     */
+    void put(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(item.getId());
+            addDoc(item);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(itemId);
+            if (deletedDuringLoad != null) {
+                deletedDuringLoad.add(itemId);
+            }
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            deletedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds items read by the initial load, unless a live write already indexed
+     * the same or a newer version, or deleted the item, while the load was running
+     */
+    void load(List<Item> items) {
+        lock.writeLock().lock();
+        try {
+            for (Item item : items) {
+                Integer doc = docByItem.get(item.getId());
+                if (deletedDuringLoad.contains(item.getId())
+                        || (doc != null && versions[doc] >= item.getVersion())) {
+                    continue;
+                }
+                removeDoc(item.getId());
+                addDoc(item);
+            }
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void endLoad() {
+        lock.writeLock().lock();
+        try {
+            deletedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------
+    // QUERIES
+    // ----------------------
+
+    /**
+     * @param text     free text; every token must match (the last one as a prefix); blank matches all
+     * @param category exact category (case-insensitive), or null for any
+     * @param minPrice inclusive lower bound, or null
+     * @param maxPrice inclusive upper bound, or null
+     */
+    Result search(String text, String category, Double minPrice, Double maxPrice, int offset, int limit) {
+        List<String> tokens = tokenize(text);
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) alive.clone();
+            List<BitSet> nameHits = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size() && !matches.isEmpty(); i++) {
+                boolean prefix = i == tokens.size() - 1;
+                matches.and(docsFor(terms, tokens.get(i), prefix));
+                nameHits.add(docsFor(nameTerms, tokens.get(i), prefix));
+            }
+
+            boolean[] categoryAccepted = null;
+            if (category != null) {
+                categoryAccepted = new boolean[categoryNames.size()];
+                for (int code = 0; code < categoryAccepted.length; code++) {
+                    categoryAccepted[code] = category.equalsIgnoreCase(categoryNames.get(code));
+                }
+            }
+
+            int[] facetCounts = new int[categoryNames.size()];
+            int[] hits = new int[matches.cardinality()];
+            byte[] scores = new byte[hits.length];
+            int total = 0;
+
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                if (!inPriceRange(prices[doc], minPrice, maxPrice)) {
+                    continue;
+                }
+                int code = categories[doc];
+                // Facet counts ignore the category filter so all choices stay visible
+                if (code >= 0) {
+                    facetCounts[code]++;
+                }
+                if (categoryAccepted != null && (code < 0 || !categoryAccepted[code])) {
+                    continue;
+                }
+                int score = 0;
+                for (BitSet tokenHits : nameHits) {
+                    if (tokenHits.get(doc)) score++;
+                }
+                hits[total] = doc;
+                scores[total] = (byte) Math.min(score, Byte.MAX_VALUE);
+                total++;
+            }
+
+            // Best name score first, then document order
+            List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+            int skipped = 0;
+            for (int score = Math.min(tokens.size(), Byte.MAX_VALUE); score >= 0 && page.size() < limit; score--) {
+                for (int i = 0; i < total && page.size() < limit; i++) {
+                    if (scores[i] != score) continue;
+                    if (skipped++ < offset) continue;
+                    page.add(itemIds[hits[i]]);
+                }
+            }
+
+            Map<String, Integer> facets = new TreeMap<>();
+            for (int code = 0; code < facetCounts.length; code++) {
+                if (facetCounts[code] > 0) facets.put(categoryNames.get(code), facetCounts[code]);
+            }
+            return new Result(page, total, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            return Map.of(
+                    "items", docByItem.size(),
+                    "terms", terms.size(),
+                    "deadDocuments", deadDocs
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cases and splits on anything that is not a letter or digit
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // ----------------------
+    // INTERNALS (caller holds the lock)
+    // ----------------------
+
+    private BitSet docsFor(TreeMap<String, Postings> dictionary, String token, boolean prefix) {
+        BitSet bits = new BitSet(nextDoc);
+        if (!prefix) {
+            Postings postings = dictionary.get(token);
+            if (postings != null) postings.addTo(bits);
+            return bits;
+        }
+        // Terms in [token, token + MAX_VALUE) are exactly those starting with token
+        for (Postings postings : dictionary.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+            postings.addTo(bits);
+        }
+        return bits;
+    }
+
+    private static boolean inPriceRange(double price, Double min, Double max) {
+        if (min == null && max == null) return true;
+        if (Double.isNaN(price)) return false;
+        return (min == null || price >= min) && (max == null || price <= max);
+    }
+
+    private void addDoc(Item item) {
+        int doc = nextDoc++;
+        if (doc == itemIds.length) {
+            int capacity = doc * 2;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        itemIds[doc] = item.getId();
+        versions[doc] = item.getVersion();
+        prices[doc] = item.getPrice() != null ? item.getPrice() : Double.NaN;
+        categories[doc] = categoryCode(item.getCategory());
+        alive.set(doc);
+        docByItem.put(item.getId(), doc);
+
+        Set<String> nameTokens = new LinkedHashSet<>(tokenize(item.getName()));
+        Set<String> itemTerms = new LinkedHashSet<>(nameTokens);
+        itemTerms.addAll(tokenize(item.getDescription()));
+        itemTerms.addAll(tokenize(item.getCategory()));
+        for (String term : itemTerms) {
+            terms.computeIfAbsent(term, t -> new Postings()).add(doc);
+        }
+        for (String term : nameTokens) {
+            nameTerms.computeIfAbsent(term, t -> new Postings()).add(doc);
+        }
+    }
+
+    // Categories are few, so codes are never reclaimed
+    private int categoryCode(String category) {
+        if (category == null) {
+            return -1;
+        }
+        return categoryCodes.computeIfAbsent(category, name -> {
+            categoryNames.add(name);
+            return categoryNames.size() - 1;
+        });
+    }
+
+    private void removeDoc(Long itemId) {
+        Integer doc = docByItem.remove(itemId);
+        if (doc != null) {
+            alive.clear(doc);
+            deadDocs++;
+        }
+    }
+
+    // Renumbers live documents densely once a quarter of them are dead
+    private void maybeCompact() {
+        if (deadDocs < MIN_DEAD_TO_COMPACT || deadDocs * 4 < nextDoc) {
+            return;
+        }
+
+        int[] remap = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (!alive.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = live;
+            itemIds[live] = itemIds[doc];
+            versions[live] = versions[doc];
+            prices[live] = prices[doc];
+            categories[live] = categories[doc];
+            live++;
+        }
+
+        remapPostings(terms, remap);
+        remapPostings(nameTerms, remap);
+        docByItem.replaceAll((itemId, doc) -> remap[doc]);
+
+        alive.clear();
+        alive.set(0, live);
+        nextDoc = live;
+        deadDocs = 0;
+    }
+
+    // The mapping is increasing, so postings stay sorted
+    private static void remapPostings(TreeMap<String, Postings> dictionary, int[] remap) {
+        for (Iterator<Postings> it = dictionary.values().iterator(); it.hasNext(); ) {
+            Postings postings = it.next();
+            int kept = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int mapped = remap[postings.docs[i]];
+                if (mapped >= 0) postings.docs[kept++] = mapped;
+            }
+            postings.size = kept;
+            if (kept == 0) it.remove();
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.supermarket.supermarket_system.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.supermarket_system.models.CatalogSnapshot;
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.ItemQuantityMap;
+import com.supermarket.supermarket_system.models.ItemSearchResult;
+import com.supermarket.supermarket_system.models.ItemSuggestion;
+import com.supermarket.supermarket_system.models.ItemSummary;
+import com.supermarket.supermarket_system.models.ItemSummaryPage;
+import com.supermarket.supermarket_system.repositories.ItemCatalogQuery;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.utils.ItemCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catalog reads and writes, with an in-memory {@link ItemCache} in front of
+ * {@link ItemRepository}.
+ *
+ * Reads are served from the cache where possible; GET /items is served from a
+ * pre-serialized {@link CatalogSnapshot}. Every write path (create,
+ * update, delete, and stock changes made by checkout/cancellation through
+ * {@link #invalidate}) evicts the affected items; inside a transaction the
+ * eviction is repeated after commit so no reader can re-cache pre-commit state.
+ *
+ * Text search runs against an {@link ItemSearchIndex}, and name autocomplete
+ * against an {@link ItemSuggester}; both are built once at startup and updated
+ * by create, update and delete. Stock is not indexed, so checkout and
+ * cancellation do not touch them; checkout only reports units sold, which rank
+ * suggestions.
+ *
+ * Items returned from findById and findAllById are detached copies, never the
+ * managed entities: changing one affects neither the database (even with
+ * open-in-view) nor other callers. Code that needs to change an item must load
+ * it from the repository.
+ */
+@Service
+public class ItemService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemService.class);
+    private static final int INDEX_LOAD_PAGE_SIZE = 1000;
+    // Deepest row reachable by page number; deeper pages need a cursor
+    static final int MAX_LIST_OFFSET = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final ItemCache cache;
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+    private final ItemSuggester suggester = new ItemSuggester();
+    private final ReentrantLock catalogBuildLock = new ReentrantLock();
+    private final ReentrantLock reindexLock = new ReentrantLock();
+    private final LineItemStore lineItems;
+    private final OptimisticRetry optimisticRetry;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ItemService(ItemRepository itemRepository, LineItemStore lineItems,
+                       OptimisticRetry optimisticRetry, ObjectMapper objectMapper,
+                       @Value("${supermarket.item-cache.max-entries:10000}") int maxEntries) {
+        this.itemRepository = itemRepository;
+        this.lineItems = lineItems;
+        this.optimisticRetry = optimisticRetry;
+        this.objectMapper = objectMapper;
+        this.cache = new ItemCache(maxEntries);
+    }
+
+    // ----------------------
+    // READS (cached)
+    // ----------------------
+
+    /**
+     * The full catalog, already serialized. Rebuilt on the first call after any
+     * item change; concurrent callers wait for that one build instead of each
+     * querying and serializing the catalog.
+     */
+    public CatalogSnapshot catalogSnapshot() {
+        CatalogSnapshot snapshot = cache.getCatalog();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        catalogBuildLock.lock();
+        try {
+            snapshot = cache.currentCatalog();
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long generation = cache.generation();
+            snapshot = buildCatalogSnapshot(itemRepository.findAll(Sort.by("id")), generation);
+            cache.putCatalog(snapshot, generation);
+            return snapshot;
+        } finally {
+            catalogBuildLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot buildCatalogSnapshot(List<Item> items, long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(items);
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            return new CatalogSnapshot(version, items.size(), etag, json, compressed.toByteArray());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not build catalog snapshot", e);
+        }
+    }
+
+    /**
+     * One page of the catalog filtered in the database. Not cached: filter
+     * combinations are too many to cache usefully, and each query is an index
+     * range scan returning summary rows only.
+     *
+     * Pages are addressed either by number, up to {@link #MAX_LIST_OFFSET} rows
+     * deep, or by the nextCursor of the previous page, which continues from the
+     * last row seen at any depth.
+     *
+     * @param sort   property and optional direction, e.g. "price" or "price,desc"
+     * @param cursor nextCursor of the previous page, or null to use page
+     * @throws IllegalArgumentException for an unknown sort property or direction,
+     *                                  a malformed cursor, or a page past the offset limit
+     */
+    public ItemSummaryPage findSummaries(String category, Double minPrice, Double maxPrice, boolean inStockOnly,
+                                         String sort, String cursor, int page, int size) {
+        String[] parts = sort.split(",");
+        ItemCatalogQuery.SortField field;
+        try {
+            field = ItemCatalogQuery.SortField.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort property: " + parts[0].trim());
+        }
+        String direction = parts.length > 1 ? parts[1].trim().toLowerCase(Locale.ROOT) : "asc";
+        if (parts.length > 2 || !(direction.equals("asc") || direction.equals("desc"))) {
+            throw new IllegalArgumentException("Invalid sort: " + sort);
+        }
+
+        Object afterValue = null;
+        Long afterId = null;
+        long offset = (long) page * size;
+        if (cursor != null) {
+            ItemCursor after = ItemCursor.decode(cursor);
+            if (!after.getSort().equals(field.name())) {
+                throw new IllegalArgumentException("Cursor does not match sort: " + sort);
+            }
+            afterValue = cursorValue(field, after.getValue());
+            afterId = after.getId();
+        } else if (offset > MAX_LIST_OFFSET) {
+            // Deep offsets read and discard every skipped row
+            throw new IllegalArgumentException("Page too deep; continue with the previous page's nextCursor");
+        }
+
+        // One extra row tells whether another page exists, without a COUNT query
+        List<ItemSummary> rows = itemRepository.findSummaries(category, minPrice, maxPrice, inStockOnly,
+                field, direction.equals("desc"), afterValue, afterId, (int) offset, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        String nextCursor = hasNext ? cursorAfter(field, rows.get(rows.size() - 1)).encode() : null;
+        return new ItemSummaryPage(rows, page, size, hasNext, nextCursor);
+    }
+
+    private static ItemCursor cursorAfter(ItemCatalogQuery.SortField field, ItemSummary last) {
+        String value = switch (field) {
+            case ID -> null;
+            case NAME -> last.getName();
+            case PRICE -> last.getPrice() != null ? last.getPrice().toString() : null;
+        };
+        return new ItemCursor(field.name(), value, last.getId());
+    }
+
+    private static Object cursorValue(ItemCatalogQuery.SortField field, String value) {
+        if (field != ItemCatalogQuery.SortField.PRICE || value == null) {
+            return value;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Optional<Item> findById(Long id) {
+        Item item = cache.get(id);
+        if (item != null) {
+            return Optional.of(item);
+        }
+        long generation = cache.generation();
+        Optional<Item> loaded = itemRepository.findById(id);
+        loaded.ifPresent(found -> cache.putItems(List.of(found), generation));
+        return loaded.map(Item::snapshot);
+    }
+
+    /**
+     * Looks up several items at once: hits come from the cache and all misses
+     * are loaded with a single query. Unknown IDs are absent from the result.
+     */
+    public Map<Long, Item> findAllById(Collection<Long> ids) {
+        Map<Long, Item> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = cache.get(id);
+            if (item != null) {
+                found.put(id, item);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long generation = cache.generation();
+            List<Item> loaded = itemRepository.findAllById(missing);
+            cache.putItems(loaded, generation);
+            for (Item item : loaded) {
+                found.put(item.getId(), item.snapshot());
+            }
+        }
+        return found;
+    }
+
+    // ----------------------
+    // SEARCH
+    // ----------------------
+
+    /**
+     * Full-text search over name, description and category, with optional
+     * category and price filters. Results are ranked by how many query words
+     * appear in the item name; category counts cover all matches before the
+     * category filter is applied.
+     */
+    public ItemSearchResult search(String text, String category, Double minPrice, Double maxPrice,
+                                   int page, int size) {
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        ItemSearchIndex.Result result = searchIndex.search(text, category, minPrice, maxPrice, offset, size);
+
+        Map<Long, Item> byId = findAllById(result.itemIds());
+        List<Item> items = new ArrayList<>(result.itemIds().size());
+        for (Long id : result.itemIds()) {
+            Item item = byId.get(id);
+            if (item != null) { // deleted since the search ran
+                items.add(item);
+            }
+        }
+        return new ItemSearchResult(items, result.total(), result.categories());
+    }
+
+    /**
+     * Item names with a word starting with prefix, most sold first
+     */
+    public List<ItemSuggestion> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        suggester.addSales(lineItems.unitsSoldByItem());
+        reindexCatalog();
+    }
+
+    /**
+     * Builds the search index and the suggester from the database in pages.
+     * Writes made meanwhile are applied directly and are never overwritten by
+     * an older copy from the load.
+     */
+    private void reindexCatalog() {
+        reindexLock.lock();
+        try {
+            long start = System.nanoTime();
+            searchIndex.beginLoad();
+            suggester.beginLoad();
+            boolean complete = false;
+            try {
+                Page<Item> page = itemRepository.findAll(PageRequest.of(0, INDEX_LOAD_PAGE_SIZE, Sort.by("id")));
+                loadIndexPage(page.getContent());
+                while (page.hasNext()) {
+                    page = itemRepository.findAll(page.nextPageable());
+                    loadIndexPage(page.getContent());
+                }
+                complete = true;
+            } finally {
+                searchIndex.endLoad();
+                // The suggester replaces its whole snapshot, so a partial load would drop items
+                if (complete) {
+                    suggester.endLoad();
+                } else {
+                    suggester.abortLoad();
+                }
+            }
+            log.info("Search index built in {} ms: {}", (System.nanoTime() - start) / 1_000_000, searchIndex.stats());
+        } finally {
+            reindexLock.unlock();
+        }
+    }
+
+    private void loadIndexPage(List<Item> items) {
+        searchIndex.load(items);
+        suggester.load(items);
+    }
+
+    /**
+     * Folds catalog changes and recent sales into the suggester's ranking
+     */
+    @Scheduled(fixedDelayString = "${supermarket.suggest.rebuild-interval-ms:30000}")
+    public void refreshSuggestions() {
+        suggester.rebuildIfChanged();
+    }
+
+    /**
+     * Counts units sold toward suggestion ranking, once the surrounding
+     * transaction (if any) commits
+     */
+    public void recordSales(ItemQuantityMap orderItems) {
+        Map<Long, Long> units = new HashMap<>();
+        orderItems.forEachLine((itemId, quantity) -> units.put(itemId, (long) quantity));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    suggester.addSales(units);
+                }
+            });
+        } else {
+            suggester.addSales(units);
+        }
+    }
+
+    public Map<String, Object> searchIndexStats() {
+        return searchIndex.stats();
+    }
+
+    public Map<String, Object> suggestStats() {
+        return suggester.stats();
+    }
+
+    // ----------------------
+    // WRITES (invalidate)
+    // ----------------------
+
+    public Item createItem(Item item) {
+        Item saved = itemRepository.save(item);
+        invalidate(List.of(saved.getId()));
+        searchIndex.put(saved);
+        suggester.put(saved);
+        return saved;
+    }
+
+    /**
+     * Applies the non-null fields of updatedItem to the stored item.
+     * Retried on a version conflict, so fields are applied to the latest state
+     * instead of overwriting a concurrent update (e.g. a checkout's stock change).
+     *
+     * @return the updated item, or null if no item has this ID
+     */
+    public Item updateItem(Long id, Item updatedItem) {
+        Item updated = optimisticRetry.inTransaction("item.update", () -> applyUpdate(id, updatedItem));
+        if (updated != null) {
+            searchIndex.put(updated); // committed by now
+            suggester.put(updated);
+        }
+        return updated;
+    }
+
+    private Item applyUpdate(Long id, Item updatedItem) {
+        return itemRepository.findById(id).map(item -> {
+            if (updatedItem.getName() != null) {
+                item.setName(updatedItem.getName());
+            }
+            if (updatedItem.getPrice() != null) {
+                item.setPrice(updatedItem.getPrice());
+            }
+            if (updatedItem.getQuantity() != 0) {
+                item.setQuantity(updatedItem.getQuantity());
+            }
+            if (updatedItem.getCategory() != null) {
+                item.setCategory(updatedItem.getCategory());
+            }
+            if (updatedItem.getDescription() != null) {
+                item.setDescription(updatedItem.getDescription());
+            }
+            Item saved = itemRepository.save(item);
+            invalidate(List.of(id));
+            return saved;
+        }).orElse(null);
+    }
+
+    public void deleteItem(Long id) {
+        itemRepository.deleteById(id);
+        invalidate(List.of(id));
+        searchIndex.remove(id);
+        suggester.remove(id);
+    }
+
+    /**
+     * Evicts items whose stored state changed outside this service
+     * (e.g. stock decremented at checkout). Safe to call inside a transaction.
+     */
+    public void invalidate(Collection<Long> ids) {
+        cache.invalidate(ids);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> changed = List.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(changed);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts and re-indexes items written behind this service's back (a bulk
+     * import chunk). Call once those writes have committed.
+     */
+    public void refreshWritten(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        cache.invalidate(ids); // also drops the catalog snapshot, which misses inserted items
+        for (Item item : itemRepository.findAllById(ids)) {
+            searchIndex.put(item);
+            suggester.put(item);
+        }
+    }
+
+    public Map<String, Object> cacheStats() {
+        return cache.stats();
+    }
+}
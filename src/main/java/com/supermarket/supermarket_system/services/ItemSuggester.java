@@ -0,0 +1,592 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.ItemSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix index over item names for /items/suggest, ranked by units sold.
+ * Owned by {@link ItemService}, which feeds it catalog writes and sales.
+ *
+ * The index is an immutable snapshot:
+ *   - one entry per word start of every name ("dark chocolate" -> "dark chocolate",
+ *     "chocolate"), packed as (document << 16 | offset) in a long[] and sorted
+ *     case-insensitively, so all entries starting with a prefix form one range
+ *     found by two binary searches
+ *   - a segment tree over the entries holding the most popular entry of each
+ *     node, so the top K of a range come out in O(K log n) without visiting
+ *     the other matches
+ * Names are kept once per item; entries only point into them.
+ *
+ * Item writes go into a small overlay that queries consult directly, and sales
+ * into a pending-increment map. A periodic {@link #rebuildIfChanged} folds both
+ * into a new snapshot built off-lock and swapped in.
+ */
+final class ItemSuggester {
+
+    private static final int MAX_WORDS_PER_NAME = 8;
+    private static final int MAX_OFFSET = 0xFFFF;
+
+    // Immutable once published. Documents are in ascending item ID order.
+    private static final class Snapshot {
+        final long[] itemIds;
+        final String[] names;
+        final long[] popularity;
+        final long[] entries;
+        final int[] tree;   // tree[1] is the root; leaves start at entries.length
+        final long builtMillis;
+
+        Snapshot(long[] itemIds, String[] names, long[] popularity, long[] entries, long builtMillis) {
+            this.itemIds = itemIds;
+            this.names = names;
+            this.popularity = popularity;
+            this.entries = entries;
+            this.tree = buildTree(entries, popularity);
+            this.builtMillis = builtMillis;
+        }
+
+        int doc(int entry) {
+            return (int) (entries[entry] >>> 16);
+        }
+
+        int indexOf(long itemId) {
+            return Arrays.binarySearch(itemIds, itemId);
+        }
+
+        long popularityOf(int entry) {
+            return popularity[doc(entry)];
+        }
+
+        // Entry with the highest popularity in [from, to), or -1 if empty
+        int best(int from, int to) {
+            int best = -1;
+            int m = entries.length;
+            for (int l = from + m, r = to + m; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) best = better(best, tree[l++]);
+                if ((r & 1) == 1) best = better(best, tree[--r]);
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            if (a < 0) return b;
+            if (b < 0) return a;
+            long pa = popularityOf(a);
+            long pb = popularityOf(b);
+            return pa != pb ? (pa > pb ? a : b) : Math.min(a, b);
+        }
+
+        private int[] buildTree(long[] entries, long[] popularity) {
+            int m = entries.length;
+            int[] tree = new int[Math.max(2, 2 * m)];
+            for (int i = 0; i < m; i++) {
+                tree[m + i] = i;
+            }
+            for (int i = m - 1; i >= 1; i--) {
+                tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+            }
+            return tree;
+        }
+    }
+
+    // A range of entries waiting in the top-K queue, keyed by its best entry
+    private record Candidate(int from, int to, int best, long popularity) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new String[0], new long[0], new long[0], 0);
+
+    // Guarded by lock. A null name means the item was deleted.
+    private final Map<Long, String> overlay = new HashMap<>();
+    private final Map<Long, Long> pendingSales = new HashMap<>();
+    // Sales of items not in the snapshot yet (e.g. imported since the last load);
+    // folded in once the item shows up, without triggering rebuilds on their own
+    private final Map<Long, Long> unmatchedSales = new HashMap<>();
+
+    // Non-null while the catalog is being loaded
+    private Map<Long, String> loading;
+
+    private long rebuilds;
+    private long lastRebuildMillis;
+
+    // ----------------------
+    // WRITES
+    // ----------------------
+
+    void put(Item item) {
+        lock.writeLock().lock();
+        try {
+            overlay.put(item.getId(), item.getName() != null ? item.getName() : "");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            overlay.put(itemId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds units sold; they affect ranking from the next rebuild
+     */
+    void addSales(Map<Long, Long> unitsByItem) {
+        lock.writeLock().lock();
+        try {
+            unitsByItem.forEach((itemId, units) -> pendingSales.merge(itemId, units, Long::sum));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Collects one page of the catalog for {@link #endLoad}
+     */
+    void load(List<Item> items) {
+        lock.writeLock().lock();
+        try {
+            for (Item item : items) {
+                loading.put(item.getId(), item.getName() != null ? item.getName() : "");
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards a load that could not read the whole catalog
+     */
+    void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the loaded catalog. Writes made while the catalog
+     * was being read stay in the overlay and keep taking precedence.
+     */
+    void endLoad() {
+        Map<Long, String> names;
+        lock.writeLock().lock();
+        try {
+            names = loading;
+            loading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long[] ids = names.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        String[] sortedNames = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            sortedNames[i] = names.get(ids[i]);
+        }
+
+        long[] popularity = new long[ids.length];
+        lock.writeLock().lock();
+        try {
+            // A reload keeps the sales already counted; sales of items not in the
+            // catalog stay pending for a later rebuild
+            Snapshot current = snapshot;
+            for (int i = 0; i < ids.length; i++) {
+                int doc = current.indexOf(ids[i]);
+                Long sold = pendingSales.remove(ids[i]);
+                Long carried = unmatchedSales.remove(ids[i]);
+                popularity[i] = (doc >= 0 ? current.popularity[doc] : 0)
+                        + (sold != null ? sold : 0) + (carried != null ? carried : 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Entries entries = new Entries();
+        for (int doc = 0; doc < sortedNames.length; doc++) {
+            entries.addWordStarts(sortedNames[doc], doc);
+        }
+        long[] sorted = entries.toArray();
+        sortEntries(sorted, sortedNames);
+        Snapshot next = new Snapshot(ids, sortedNames, popularity, sorted, System.currentTimeMillis());
+
+        lock.writeLock().lock();
+        try {
+            snapshot = next;
+            rebuilds++;
+            lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Folds the overlay and pending sales into a new snapshot, if there are any
+     */
+    void rebuildIfChanged() {
+        Snapshot current;
+        Map<Long, String> changes;
+        Map<Long, Long> sales;
+        lock.writeLock().lock();
+        try {
+            // A load in progress would replace the merged snapshot and lose the overlay
+            if (loading != null || (overlay.isEmpty() && pendingSales.isEmpty())) {
+                return;
+            }
+            current = snapshot;
+            changes = new HashMap<>(overlay);
+            sales = new HashMap<>(pendingSales);
+            unmatchedSales.forEach((itemId, units) -> sales.merge(itemId, units, Long::sum));
+            pendingSales.clear();
+            unmatchedSales.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Snapshot next = merge(current, changes, sales);
+
+        lock.writeLock().lock();
+        try {
+            snapshot = next;
+            // Keep sales the merge could not place, except those of deleted items
+            sales.forEach((itemId, units) -> {
+                boolean deleted = changes.containsKey(itemId) && changes.get(itemId) == null;
+                if (!deleted && next.indexOf(itemId) < 0) {
+                    unmatchedSales.merge(itemId, units, Long::sum);
+                }
+            });
+            // remove(key, value): entries that changed again meanwhile stay in the overlay
+            changes.forEach(overlay::remove);
+            rebuilds++;
+            lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------
+    // QUERIES
+    // ----------------------
+
+    /**
+     * @return up to limit items having a word that starts with prefix, most sold first
+     */
+    List<ItemSuggestion> suggest(String prefix, int limit) {
+        String key = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Snapshot s = snapshot;
+            List<ItemSuggestion> fromSnapshot = topFromSnapshot(s, key, limit);
+            List<ItemSuggestion> fromOverlay = matchOverlay(s, key);
+            if (fromOverlay.isEmpty()) {
+                return fromSnapshot;
+            }
+
+            List<ItemSuggestion> merged = new ArrayList<>(fromSnapshot);
+            merged.addAll(fromOverlay);
+            merged.sort((a, b) -> a.getPopularity() != b.getPopularity()
+                    ? Long.compare(b.getPopularity(), a.getPopularity())
+                    : a.getName().compareToIgnoreCase(b.getName()));
+            return List.copyOf(merged.subList(0, Math.min(limit, merged.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Snapshot s = snapshot;
+            long nameChars = 0;
+            for (String name : s.names) {
+                nameChars += name.length();
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("items", s.itemIds.length);
+            stats.put("entries", s.entries.length);
+            // Arrays plus names at ~1 byte per char and ~40 bytes per String
+            stats.put("approxBytes", s.itemIds.length * (8L + 8 + 4 + 40) + nameChars
+                    + s.entries.length * 8L + s.tree.length * 4L);
+            stats.put("overlay", overlay.size());
+            stats.put("pendingSalesItems", pendingSales.size());
+            stats.put("unmatchedSalesItems", unmatchedSales.size());
+            stats.put("rebuilds", rebuilds);
+            stats.put("lastRebuildMs", lastRebuildMillis);
+            stats.put("snapshotBuiltAt", s.builtMillis);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ----------------------
+    // INTERNALS
+    // ----------------------
+
+    // Pops the best entry of the best range and splits the range around it
+    private List<ItemSuggestion> topFromSnapshot(Snapshot s, String key, int limit) {
+        int from = lowerBound(s, key);
+        int to = upperBound(s, key, from);
+        List<ItemSuggestion> result = new ArrayList<>(limit);
+        if (from >= to) {
+            return result;
+        }
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>((a, b) -> a.popularity() != b.popularity()
+                ? Long.compare(b.popularity(), a.popularity())
+                : Integer.compare(a.best(), b.best()));
+        offer(queue, s, from, to);
+
+        Set<Long> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate c = queue.poll();
+            int doc = s.doc(c.best());
+            long itemId = s.itemIds[doc];
+            // Overlaid items are answered from the overlay; an item can match on several words
+            if (!overlay.containsKey(itemId) && seen.add(itemId)) {
+                result.add(new ItemSuggestion(itemId, s.names[doc], s.popularity[doc]));
+            }
+            offer(queue, s, c.from(), c.best());
+            offer(queue, s, c.best() + 1, c.to());
+        }
+        return result;
+    }
+
+    private static void offer(PriorityQueue<Candidate> queue, Snapshot s, int from, int to) {
+        if (from < to) {
+            int best = s.best(from, to);
+            queue.add(new Candidate(from, to, best, s.popularityOf(best)));
+        }
+    }
+
+    private List<ItemSuggestion> matchOverlay(Snapshot s, String key) {
+        List<ItemSuggestion> matches = new ArrayList<>();
+        overlay.forEach((itemId, name) -> {
+            if (name != null && hasWordStartingWith(name, key)) {
+                int doc = s.indexOf(itemId);
+                long sold = doc >= 0 ? s.popularity[doc] : 0;
+                matches.add(new ItemSuggestion(itemId, name, sold));
+            }
+        });
+        return matches;
+    }
+
+    private static boolean hasWordStartingWith(String name, String key) {
+        int words = 0;
+        for (int offset = 0; offset < name.length() && words < MAX_WORDS_PER_NAME; offset++) {
+            if (isWordStart(name, offset)) {
+                words++;
+                if (comparePrefix(name, offset, key) == 0) return true;
+            }
+        }
+        return false;
+    }
+
+    // First entry not below key
+    private static int lowerBound(Snapshot s, String key) {
+        int lo = 0;
+        int hi = s.entries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            long e = s.entries[mid];
+            if (comparePrefix(s.names[(int) (e >>> 16)], (int) (e & MAX_OFFSET), key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First entry after from that does not start with key
+    private static int upperBound(Snapshot s, String key, int from) {
+        int lo = from;
+        int hi = s.entries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            long e = s.entries[mid];
+            if (comparePrefix(s.names[(int) (e >>> 16)], (int) (e & MAX_OFFSET), key) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Compares the suffix of name at offset with key (already lower-case), treating
+     * a suffix that starts with key as equal
+     */
+    private static int comparePrefix(String name, int offset, String key) {
+        int n = Math.min(name.length() - offset, key.length());
+        for (int i = 0; i < n; i++) {
+            char a = Character.toLowerCase(name.charAt(offset + i));
+            char b = key.charAt(i);
+            if (a != b) return a - b;
+        }
+        return n == key.length() ? 0 : -1;
+    }
+
+    private static boolean isWordStart(String name, int offset) {
+        return Character.isLetterOrDigit(name.charAt(offset))
+                && (offset == 0 || !Character.isLetterOrDigit(name.charAt(offset - 1)));
+    }
+
+    // Growable long[] of packed (document << 16 | offset) entries
+    private static final class Entries {
+        private long[] values = new long[16];
+        private int size;
+
+        void addWordStarts(String name, int doc) {
+            int words = 0;
+            for (int offset = 0; offset < Math.min(name.length(), MAX_OFFSET) && words < MAX_WORDS_PER_NAME; offset++) {
+                if (isWordStart(name, offset)) {
+                    add(((long) doc << 16) | offset);
+                    words++;
+                }
+            }
+        }
+
+        void add(long entry) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = entry;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static int compareEntries(long a, long b, String[] names) {
+        String na = names[(int) (a >>> 16)];
+        String nb = names[(int) (b >>> 16)];
+        int oa = (int) (a & MAX_OFFSET);
+        int ob = (int) (b & MAX_OFFSET);
+        int n = Math.min(na.length() - oa, nb.length() - ob);
+        for (int i = 0; i < n; i++) {
+            char ca = Character.toLowerCase(na.charAt(oa + i));
+            char cb = Character.toLowerCase(nb.charAt(ob + i));
+            if (ca != cb) return ca - cb;
+        }
+        return (na.length() - oa) - (nb.length() - ob);
+    }
+
+    // Bottom-up merge sort on the packed entries, avoiding a boxed Long[]
+    private static void sortEntries(long[] entries, String[] names) {
+        long[] src = entries;
+        long[] dst = new long[entries.length];
+        for (int width = 1; width < entries.length; width *= 2) {
+            for (int lo = 0; lo < entries.length; lo += 2 * width) {
+                int mid = Math.min(lo + width, entries.length);
+                int hi = Math.min(lo + 2 * width, entries.length);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    dst[k++] = compareEntries(src[j], src[i], names) < 0 ? src[j++] : src[i++];
+                }
+                while (i < mid) dst[k++] = src[i++];
+                while (j < hi) dst[k++] = src[j++];
+            }
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != entries) {
+            System.arraycopy(src, 0, entries, 0, entries.length);
+        }
+    }
+
+    /**
+     * Old documents minus changed ones, plus the changed ones that still exist.
+     * Renumbering documents keeps the entry order, so only the entries of changed
+     * names are sorted, then merged into the old ones in one pass.
+     */
+    private static Snapshot merge(Snapshot current, Map<Long, String> changes, Map<Long, Long> sales) {
+        long[] changedIds = changes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+        int capacity = current.itemIds.length + changedIds.length;
+        long[] ids = new long[capacity];
+        String[] names = new String[capacity];
+        long[] popularity = new long[capacity];
+        int[] remap = new int[current.itemIds.length];  // new document of an unchanged old one, else -1
+        Entries added = new Entries();
+        int n = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < current.itemIds.length || j < changedIds.length) {
+            long oldId = i < current.itemIds.length ? current.itemIds[i] : Long.MAX_VALUE;
+            long changedId = j < changedIds.length ? changedIds[j] : Long.MAX_VALUE;
+            long id;
+            String name;
+            long sold;
+            if (changedId <= oldId) {
+                id = changedId;
+                name = changes.get(changedId);
+                sold = 0;
+                if (changedId == oldId) {
+                    sold = current.popularity[i];
+                    remap[i++] = -1;
+                }
+                j++;
+                if (name != null) added.addWordStarts(name, n);
+            } else {
+                id = oldId;
+                name = current.names[i];
+                sold = current.popularity[i];
+                remap[i++] = n;
+            }
+            if (name != null) {
+                ids[n] = id;
+                names[n] = name;
+                popularity[n] = sold + sales.getOrDefault(id, 0L);
+                n++;
+            }
+        }
+        names = Arrays.copyOf(names, n);
+
+        long[] fresh = added.toArray();
+        sortEntries(fresh, names);
+        long[] entries = new long[current.entries.length + fresh.length];
+        int size = 0;
+        int f = 0;
+        for (long old : current.entries) {
+            int doc = remap[(int) (old >>> 16)];
+            if (doc < 0) continue;
+            long kept = ((long) doc << 16) | (old & MAX_OFFSET);
+            while (f < fresh.length && compareEntries(fresh[f], kept, names) < 0) {
+                entries[size++] = fresh[f++];
+            }
+            entries[size++] = kept;
+        }
+        while (f < fresh.length) {
+            entries[size++] = fresh[f++];
+        }
+
+        return new Snapshot(Arrays.copyOf(ids, n), names, Arrays.copyOf(popularity, n),
+                Arrays.copyOf(entries, size), System.currentTimeMillis());
+    }
+}
@@ -1,5 +1,6 @@
 package com.supermarket.supermarket_system.services;
 
+import com.supermarket.supermarket_system.security.JwtPrincipal;
 import com.supermarket.supermarket_system.utils.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,8 +11,12 @@ public class JwtService {
     @Autowired
     private JwtUtils jwtUtils;
 
-    public String generateToken(String email, String role) {
-        return jwtUtils.generateToken(email, role);
+    public String generateToken(String email, String role, Long userId) {
+        return jwtUtils.generateToken(email, role, userId);
+    }
+
+    public JwtPrincipal verify(String token) {
+        return jwtUtils.verify(token);
     }
 
     public boolean validateToken(String token) {
@@ -0,0 +1,154 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Cart;
+import com.supermarket.supermarket_system.models.CartLine;
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.Order;
+import com.supermarket.supermarket_system.models.OrderLine;
+import com.supermarket.supermarket_system.repositories.CartLineRepository;
+import com.supermarket.supermarket_system.repositories.CartRepository;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.OrderLineRepository;
+import com.supermarket.supermarket_system.repositories.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-off migration from the JSON items column to cart_lines / order_lines.
+ *
+ * Runs at startup when supermarket.line-items.backfill-on-startup=true.
+ * Carts and orders are processed page by page, one transaction per page, and
+ * owners that already have lines are skipped, so the run can be interrupted
+ * and restarted safely. Unit prices are taken from the current catalog.
+ */
+@Component
+@ConditionalOnProperty(name = "supermarket.line-items.backfill-on-startup", havingValue = "true")
+public class LineItemBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LineItemBackfill.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CartLineRepository cartLineRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int cartLines = 0;
+        for (int page = 0; ; page++) {
+            int pageNumber = page;
+            Integer written = transactionTemplate.execute(status -> backfillCartPage(pageNumber));
+            if (written == null || written < 0) break;
+            cartLines += written;
+        }
+
+        int orderLines = 0;
+        for (int page = 0; ; page++) {
+            int pageNumber = page;
+            Integer written = transactionTemplate.execute(status -> backfillOrderPage(pageNumber));
+            if (written == null || written < 0) break;
+            orderLines += written;
+        }
+
+        log.info("Line item backfill finished: {} cart lines, {} order lines", cartLines, orderLines);
+    }
+
+    /**
+     * @return lines written for this page, or -1 when there are no more carts
+     */
+    private int backfillCartPage(int page) {
+        Page<Cart> carts = cartRepository.findAll(PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+        if (carts.isEmpty()) {
+            return -1;
+        }
+
+        List<Cart> pending = new ArrayList<>();
+        for (Cart cart : carts) {
+            if (!cart.getItems().isEmpty() && !cartLineRepository.existsByCartId(cart.getId())) {
+                pending.add(cart);
+            }
+        }
+
+        Map<Long, Double> prices = pricesFor(pending.stream().map(Cart::getItems).toList());
+        List<CartLine> lines = new ArrayList<>();
+        for (Cart cart : pending) {
+            for (Map.Entry<Long, Integer> entry : cart.getItems().entrySet()) {
+                lines.add(new CartLine(cart, entry.getKey(), entry.getValue(), prices.get(entry.getKey())));
+            }
+        }
+        cartLineRepository.saveAll(lines);
+        return lines.size();
+    }
+
+    /**
+     * @return lines written for this page, or -1 when there are no more orders
+     */
+    private int backfillOrderPage(int page) {
+        Page<Order> orders = orderRepository.findAll(PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+        if (orders.isEmpty()) {
+            return -1;
+        }
+
+        List<Order> pending = new ArrayList<>();
+        for (Order order : orders) {
+            if (!order.getItems().isEmpty() && !orderLineRepository.existsByOrderId(order.getId())) {
+                pending.add(order);
+            }
+        }
+
+        Map<Long, Double> prices = pricesFor(pending.stream().map(Order::getItems).toList());
+        List<OrderLine> lines = new ArrayList<>();
+        for (Order order : pending) {
+            for (Map.Entry<Long, Integer> entry : order.getItems().entrySet()) {
+                lines.add(new OrderLine(order, entry.getKey(), entry.getValue(), prices.get(entry.getKey())));
+            }
+        }
+        orderLineRepository.insertAll(lines);
+        return lines.size();
+    }
+
+    // Current price of every item referenced by the given maps, in one query
+    private Map<Long, Double> pricesFor(List<? extends Map<Long, Integer>> itemMaps) {
+        Set<Long> itemIds = new HashSet<>();
+        itemMaps.forEach(items -> itemIds.addAll(items.keySet()));
+
+        Map<Long, Double> prices = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            for (Item item : itemRepository.findAllById(itemIds)) {
+                prices.put(item.getId(), item.getPrice());
+            }
+        }
+        return prices;
+    }
+}
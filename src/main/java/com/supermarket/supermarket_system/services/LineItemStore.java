@@ -0,0 +1,159 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Cart;
+import com.supermarket.supermarket_system.models.CartLine;
+import com.supermarket.supermarket_system.models.ItemQuantityMap;
+import com.supermarket.supermarket_system.models.Order;
+import com.supermarket.supermarket_system.models.OrderLine;
+import com.supermarket.supermarket_system.repositories.CartLineRepository;
+import com.supermarket.supermarket_system.repositories.OrderLineRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistence of cart and order line items in the relational model
+ * (cart_lines / order_lines).
+ *
+ * Opt-in through supermarket.line-items.relational. When enabled, cart_lines is
+ * the source of truth for cart contents and each cart mutation is a single-row
+ * upsert or delete; the carts.items JSON column is no longer rewritten. Orders are
+ * written once, so order_lines is written next to the JSON column rather than
+ * replacing it. When disabled every method here is a no-op and the JSON column
+ * is used as before.
+ */
+@Service
+public class LineItemStore {
+
+    // Orders read per query when summing sales from the JSON column
+    private static final int SALES_SCAN_PAGE_SIZE = 1000;
+
+    private final CartLineRepository cartLineRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final EntityManager entityManager;
+
+    @Value("${supermarket.line-items.relational:false}")
+    private boolean relational;
+
+    @Autowired
+    public LineItemStore(CartLineRepository cartLineRepository,
+                         OrderLineRepository orderLineRepository,
+                         EntityManager entityManager) {
+        this.cartLineRepository = cartLineRepository;
+        this.orderLineRepository = orderLineRepository;
+        this.entityManager = entityManager;
+    }
+
+    public boolean isRelational() {
+        return relational;
+    }
+
+    /**
+     * In relational mode, replaces the cart's items with its cart_lines rows.
+     * The cart is detached first so the stale JSON column is never flushed back.
+     */
+    public Cart withLines(Cart cart) {
+        if (!relational) {
+            return cart;
+        }
+        if (entityManager.contains(cart)) {
+            entityManager.detach(cart);
+        }
+
+        List<CartLine> lines = cartLineRepository.findByCartId(cart.getId());
+        ItemQuantityMap items = new ItemQuantityMap(lines.size());
+        for (CartLine line : lines) {
+            items.putQuantity(line.getItemId(), line.getQuantity());
+        }
+        cart.setItems(items);
+        return cart;
+    }
+
+    /**
+     * Writes the cart's current quantity for one item: upsert if present, delete if gone
+     */
+    public void saveCartLine(Cart cart, Long itemId, Double unitPrice) {
+        if (!relational) {
+            return;
+        }
+        if (!cart.getItems().containsItem(itemId)) {
+            cartLineRepository.deleteLine(cart.getId(), itemId);
+        } else {
+            cartLineRepository.upsert(cart.getId(), itemId, cart.getItems().getQuantity(itemId), unitPrice);
+        }
+    }
+
+    /**
+     * Rewrites all of the cart's lines from its current items
+     * (used when flushing a buffered cart)
+     */
+    public void replaceCartLines(Cart cart, Map<Long, Double> unitPrices) {
+        if (!relational) {
+            return;
+        }
+        cartLineRepository.deleteAllLines(cart.getId());
+        List<CartLine> lines = new ArrayList<>(cart.getItems().size());
+        cart.getItems().forEachLine((itemId, quantity) ->
+                lines.add(new CartLine(cart, itemId, quantity, unitPrices.get(itemId))));
+        cartLineRepository.saveAll(lines);
+    }
+
+    public void clearCartLines(Cart cart) {
+        if (relational) {
+            cartLineRepository.deleteAllLines(cart.getId());
+        }
+    }
+
+    /**
+     * Records the lines of a newly created order with their checkout prices,
+     * as one batched insert
+     */
+    public void saveOrderLines(Order order, Map<Long, Double> unitPrices) {
+        if (!relational) {
+            return;
+        }
+        List<OrderLine> lines = new ArrayList<>(order.getItems().size());
+        order.getItems().forEachLine((itemId, quantity) ->
+                lines.add(new OrderLine(order, itemId, quantity, unitPrices.get(itemId))));
+        orderLineRepository.insertAll(lines);
+    }
+
+    /**
+     * Units ordered per item, used to rank suggestions at startup. Read from
+     * order_lines in relational mode; otherwise summed from the orders.items
+     * column a page of orders at a time, skipping orders that never took stock
+     * (PENDING and FAILED have no order_lines either).
+     */
+    public Map<Long, Long> unitsSoldByItem() {
+        Map<Long, Long> sold = new HashMap<>();
+        if (relational) {
+            for (Object[] row : orderLineRepository.sumQuantityByItem()) {
+                sold.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            return sold;
+        }
+
+        long afterId = 0;
+        List<Object[]> page;
+        do {
+            page = entityManager.createQuery(
+                            "SELECT o.id, o.items FROM Order o WHERE o.id > :afterId " +
+                                    "AND o.status NOT IN ('PENDING', 'FAILED') ORDER BY o.id", Object[].class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(SALES_SCAN_PAGE_SIZE)
+                    .getResultList();
+            for (Object[] row : page) {
+                ((ItemQuantityMap) row[1]).forEachLine((itemId, quantity) ->
+                        sold.merge(itemId, (long) quantity, Long::sum));
+                afterId = (Long) row[0];
+            }
+        } while (page.size() == SALES_SCAN_PAGE_SIZE);
+        return sold;
+    }
+}
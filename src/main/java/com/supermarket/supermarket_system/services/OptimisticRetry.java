@@ -0,0 +1,89 @@
+package com.supermarket.supermarket_system.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write in its own transaction and retries it when an optimistic
+ * version check fails (another request updated the same row first).
+ *
+ * Each attempt starts a fresh transaction; on rollback the persistence context
+ * is cleared, so the retried attempt re-reads current state. Between attempts
+ * the caller sleeps a random time up to backoff-ms * 2^(attempt - 1) ("full
+ * jitter") so colliding writers spread out instead of colliding again. After
+ * max-attempts the last {@link OptimisticLockingFailureException} propagates.
+ *
+ * Conflicts, retries and exhausted operations are counted per operation name
+ * and reported at GET /admin/metrics.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final class Counters {
+        final AtomicLong conflicts = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong exhausted = new AtomicLong();
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public OptimisticRetry(TransactionTemplate transactionTemplate,
+                           @Value("${supermarket.concurrency.max-attempts:3}") int maxAttempts,
+                           @Value("${supermarket.concurrency.backoff-ms:20}") long backoffMillis) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T inTransaction(String operation, Supplier<T> action) {
+        Counters stats = counters.computeIfAbsent(operation, name -> new Counters());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                stats.conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    stats.exhausted.incrementAndGet();
+                    throw e;
+                }
+                stats.retries.incrementAndGet();
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        counters.forEach((operation, c) -> stats.put(operation, Map.of(
+                "conflicts", c.conflicts.get(),
+                "retries", c.retries.get(),
+                "exhausted", c.exhausted.get()
+        )));
+        return stats;
+    }
+
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        long ceiling = backoffMillis << Math.min(attempt - 1, 10);
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -2,23 +2,39 @@ package com.supermarket.supermarket_system.services;
 
 import com.supermarket.supermarket_system.models.Cart;
 import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.ItemQuantityMap;
 import com.supermarket.supermarket_system.models.Order;
+import com.supermarket.supermarket_system.models.OrderPage;
 import com.supermarket.supermarket_system.models.User;
 import com.supermarket.supermarket_system.repositories.CartRepository;
-import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.InventoryRepository;
 import com.supermarket.supermarket_system.repositories.OrderRepository;
 import com.supermarket.supermarket_system.repositories.UserRepository;
+import com.supermarket.supermarket_system.security.UserAccessValidator;
+import com.supermarket.supermarket_system.utils.OrderCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
@@ -33,95 +49,280 @@ public class OrderService {
     private CartRepository cartRepository;
 
     @Autowired
-    private ItemRepository itemRepository;
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserAccessValidator accessValidator;
+
+    @Autowired
+    private LineItemStore lineItems;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Orders written between persistence-context clears during export
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
+    private void validateUserAccess(Long userId) {
+        accessValidator.validateUserAccess(userId, "You can only access your own orders");
+    }
+
+    @Transactional
+    public Order createOrderFromCart(Long userId, String paymentMethod) {
+        validateCheckout(userId, paymentMethod);
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Cart cart = loadCheckoutCart(userId);
+
+        ItemQuantityMap orderItems = new ItemQuantityMap(cart.getItems());
+        Map<Long, Double> unitPrices = reserveStock(orderItems);
+
+        Order order = new Order(user, orderItems);
+        order.setPaymentmethod(paymentMethod);
+        order = orderRepository.save(order);
+        lineItems.saveOrderLines(order, unitPrices);
+
+        clearCheckedOutCart(cart);
+        return order;
+    }
 
     /**
-     * Validates that the authenticated user matches the userId or is an admin
+     * First half of an asynchronous checkout: records the cart as a PENDING order
+     * and clears the cart, without touching stock. {@link #completePendingOrder}
+     * later reserves the stock, or the order ends up FAILED.
      */
-    private void validateUserAccess(Long userId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    @Transactional
+    public Order acceptOrderFromCart(Long userId, String paymentMethod) {
+        validateCheckout(userId, paymentMethod);
 
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new AccessDeniedException("User not authenticated");
-        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Cart cart = loadCheckoutCart(userId);
+
+        Order order = new Order(user, new ItemQuantityMap(cart.getItems()));
+        order.setStatus("PENDING");
+        order.setPaymentmethod(paymentMethod);
+        order = orderRepository.save(order);
+
+        clearCheckedOutCart(cart);
+        return order;
+    }
 
-        // Check if user is admin
-        if (isAdmin(auth)) {
-            return; // Admins can access anything
+    /**
+     * Second half of an asynchronous checkout, run by the checkout workers inside
+     * a transaction: reserves stock and moves the order from PENDING to SHIPPING.
+     * Orders that are no longer PENDING (e.g. cancelled meanwhile) are left alone.
+     * Throws if stock cannot be reserved; the caller then marks the order FAILED.
+     */
+    public void completePendingOrder(Long orderId) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null || !"PENDING".equals(order.getStatus())) {
+            return;
         }
 
-        // Get email from JWT token
-        String tokenEmail = auth.getName();
+        Map<Long, Double> unitPrices = reserveStock(order.getItems());
+        order.setStatus("SHIPPING");
+        orderRepository.save(order);
+        lineItems.saveOrderLines(order, unitPrices);
+    }
 
-        // Get user from database
-        Optional<User> targetUser = userRepository.findById(userId);
+    /**
+     * Batch form of {@link #completePendingOrder}, run by the checkout workers inside
+     * one transaction per drained batch. The lines of all orders are reserved in a
+     * single batch, sorted by item ID. An order with a line that could not be filled
+     * gets its other lines restocked in the same transaction and becomes FAILED; the
+     * rest move to SHIPPING. Orders that are no longer PENDING are left alone.
+     *
+     * @return failure reason per order that became FAILED
+     */
+    public Map<Long, String> completePendingOrders(List<Long> orderIds) {
+        List<Order> orders = orderRepository.findAllById(orderIds).stream()
+                .filter(order -> "PENDING".equals(order.getStatus()))
+                .toList();
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
 
-        if (targetUser.isEmpty()) {
-            throw new RuntimeException("User not found");
+        Set<Long> allItemIds = new HashSet<>();
+        orders.forEach(order -> allItemIds.addAll(order.getItems().keySet()));
+        Map<Long, Item> items = itemService.findAllById(allItemIds);
+
+        // One entry per line of every order that can be attempted: {itemId, quantity, order index}
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<long[]> lines = new ArrayList<>();
+        for (int o = 0; o < orders.size(); o++) {
+            Order order = orders.get(o);
+            Long missing = order.getItems().keySet().stream()
+                    .filter(itemId -> !items.containsKey(itemId))
+                    .findFirst().orElse(null);
+            if (missing != null) {
+                failures.put(order.getId(), "Item not found with id: " + missing);
+                continue;
+            }
+            int orderIndex = o;
+            order.getItems().forEachLine((itemId, quantity) -> lines.add(new long[]{itemId, quantity, orderIndex}));
+        }
+        // Same row lock order as single checkouts, across the whole batch
+        lines.sort(Comparator.<long[]>comparingLong(line -> line[0]).thenComparingLong(line -> line[2]));
+
+        long[] itemIds = new long[lines.size()];
+        int[] quantities = new int[lines.size()];
+        for (int i = 0; i < itemIds.length; i++) {
+            itemIds[i] = lines.get(i)[0];
+            quantities[i] = (int) lines.get(i)[1];
+        }
+        boolean[] reserved = itemIds.length == 0 ? new boolean[0] : inventoryRepository.reserve(itemIds, quantities);
+        itemService.invalidate(allItemIds);
+
+        boolean[] unfilled = new boolean[orders.size()];
+        for (int i = 0; i < reserved.length; i++) {
+            int orderIndex = (int) lines.get(i)[2];
+            if (!reserved[i] && !unfilled[orderIndex]) {
+                unfilled[orderIndex] = true;
+                failures.put(orders.get(orderIndex).getId(), "Insufficient stock for item: "
+                        + items.get(itemIds[i]).getName() + ", Requested: " + quantities[i]);
+            }
         }
 
-        // Compare emails
-        if (!tokenEmail.equals(targetUser.get().getEmail())) {
-            throw new AccessDeniedException("You can only access your own orders");
+        // Give back what the failed orders did get, still in item ID order
+        List<Integer> giveBack = new ArrayList<>();
+        for (int i = 0; i < reserved.length; i++) {
+            if (reserved[i] && unfilled[(int) lines.get(i)[2]]) {
+                giveBack.add(i);
+            }
+        }
+        if (!giveBack.isEmpty()) {
+            long[] restockIds = new long[giveBack.size()];
+            int[] restockQuantities = new int[giveBack.size()];
+            for (int i = 0; i < restockIds.length; i++) {
+                restockIds[i] = itemIds[giveBack.get(i)];
+                restockQuantities[i] = quantities[giveBack.get(i)];
+            }
+            inventoryRepository.restock(restockIds, restockQuantities);
         }
+
+        for (Order order : orders) {
+            if (failures.containsKey(order.getId())) {
+                order.setStatus("FAILED");
+                orderRepository.save(order);
+                continue;
+            }
+            Map<Long, Double> unitPrices = new HashMap<>();
+            order.getItems().forEachLine((itemId, quantity) -> unitPrices.put(itemId, items.get(itemId).getPrice()));
+            order.setStatus("SHIPPING");
+            orderRepository.save(order);
+            lineItems.saveOrderLines(order, unitPrices);
+            itemService.recordSales(order.getItems());
+        }
+        return failures;
     }
 
     /**
-     * Check if current user is admin
+     * Marks a PENDING order whose stock could not be reserved as FAILED
      */
-    private boolean isAdmin(Authentication auth) {
-        return auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    public void failPendingOrder(Long orderId) {
+        orderRepository.findById(orderId)
+                .filter(order -> "PENDING".equals(order.getStatus()))
+                .ifPresent(order -> {
+                    order.setStatus("FAILED");
+                    orderRepository.save(order);
+                });
     }
 
-    @Transactional
-    public Order createOrderFromCart(Long userId, String paymentMethod) {
+    // Orders accepted but not yet processed, oldest first (re-queued at startup)
+    public List<Order> findPendingOrders() {
+        return orderRepository.findByStatusOrderByIdAsc("PENDING");
+    }
+
+    private void validateCheckout(Long userId, String paymentMethod) {
         validateUserAccess(userId);
 
         if (paymentMethod == null || paymentMethod.trim().isEmpty()) {
             throw new IllegalArgumentException("Payment method is required");
         }
+    }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found or empty"));
+    private Cart loadCheckoutCart(Long userId) {
+        Cart cart = lineItems.withLines(cartRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Cart not found or empty")));
 
         if (cart.getItems() == null || cart.getItems().isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
+        return cart;
+    }
 
-        Map<Long, Integer> orderItems = new HashMap<>(cart.getItems());
-
-        // Check stock availability and decrease quantities
-        for (Map.Entry<Long, Integer> entry : orderItems.entrySet()) {
-            Long itemId = entry.getKey();
-            Integer quantityOrdered = entry.getValue();
-
-            Item item = itemRepository.findById(itemId)
-                    .orElseThrow(() -> new RuntimeException("Item not found with id: " + itemId));
-
-            if (item.getQuantity() < quantityOrdered) {
-                throw new RuntimeException("Insufficient stock for item: " + item.getName() +
-                        ". Available: " + item.getQuantity() + ", Requested: " + quantityOrdered);
+    // Clear cart after order
+    private void clearCheckedOutCart(Cart cart) {
+        cart.clearCart();
+        if (lineItems.isRelational()) {
+            // The cart is detached here; a version-checked UPDATE avoids merge's extra SELECT
+            if (cartRepository.updateTotalPrice(cart.getId(), 0.0, cart.getVersion()) == 0) {
+                throw new ObjectOptimisticLockingFailureException(Cart.class, cart.getId());
             }
-
-            // Decrease item quantity
-            item.setQuantity(item.getQuantity() - quantityOrdered);
-            itemRepository.save(item);
+            lineItems.clearCartLines(cart);
+        } else {
+            cartRepository.save(cart);
         }
+    }
 
-        Order order = new Order(user, orderItems);
-        order.setPaymentmethod(paymentMethod);
-        order = orderRepository.save(order);
+    /**
+     * Takes the stock for every line with one conditional UPDATE per line, sent as
+     * a single batch. Any line that cannot be filled throws, which rolls back the
+     * whole checkout transaction including lines that were already reserved.
+     *
+     * @return unit price per item at the time of the order
+     */
+    private Map<Long, Double> reserveStock(ItemQuantityMap orderItems) {
+        Map<Long, Item> items = itemService.findAllById(orderItems.keySet());
+
+        long[] itemIds = sortedItemIds(orderItems);
+        int[] quantities = new int[itemIds.length];
+        Map<Long, Double> unitPrices = new HashMap<>();
+        for (int i = 0; i < itemIds.length; i++) {
+            long itemId = itemIds[i];
+            Item item = items.get(itemId);
+            if (item == null) {
+                throw new RuntimeException("Item not found with id: " + itemId);
+            }
+            quantities[i] = orderItems.getQuantity(itemId);
+            unitPrices.put(itemId, item.getPrice());
+        }
 
-        // Clear cart after order
-        cart.setItems(new HashMap<>());
-        cart.setTotalPrice(0);
-        cartRepository.save(cart);
+        boolean[] reserved = inventoryRepository.reserve(itemIds, quantities);
+        itemService.invalidate(orderItems.keySet());
+
+        for (int i = 0; i < reserved.length; i++) {
+            if (!reserved[i]) {
+                Integer available = inventoryRepository.availableQuantity(itemIds[i]);
+                if (available == null) {
+                    throw new RuntimeException("Item not found with id: " + itemIds[i]);
+                }
+                throw new RuntimeException("Insufficient stock for item: " + items.get(itemIds[i]).getName() +
+                        ". Available: " + available + ", Requested: " + quantities[i]);
+            }
+        }
+        itemService.recordSales(orderItems);
+        return unitPrices;
+    }
 
-        return order;
+    // Sorted so concurrent stock updates lock item rows in the same order
+    private static long[] sortedItemIds(ItemQuantityMap lines) {
+        long[] itemIds = new long[lines.size()];
+        int[] count = {0};
+        lines.forEachLine((itemId, quantity) -> itemIds[count[0]++] = itemId);
+        Arrays.sort(itemIds);
+        return itemIds;
     }
 
     public Order getOrderById(Long orderId) {
@@ -131,7 +332,7 @@ public class OrderService {
         // Validate user can access this order
         validateUserAccess(order.getUser().getId());
 
-        enrichOrderWithItemDetails(order);
+        enrichOrdersWithItemDetails(List.of(order));
         return order;
     }
 
@@ -139,40 +340,144 @@ public class OrderService {
         validateUserAccess(userId);
 
         List<Order> orders = orderRepository.findByUserIdOrderByOrderDateDesc(userId);
-        orders.forEach(this::enrichOrderWithItemDetails);
+        enrichOrdersWithItemDetails(orders);
         return orders;
     }
 
-    public List<Order> getAllOrders() {
+    public OrderPage getAllOrders(String cursor, int limit) {
         // Only admins can access - will be enforced by SecurityConfig
-        List<Order> orders = orderRepository.findAllByOrderByOrderDateDesc();
-        orders.forEach(this::enrichOrderWithItemDetails);
-        return orders;
+        // Fetch one extra row to know whether another page exists
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPage(pageable);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageAfter(after.getOrderDate(), after.getId(), pageable);
+        }
+        return toPage(orders, limit);
     }
 
-    public List<Order> getOrdersByStatus(String status) {
+    public OrderPage getOrdersByStatus(String status, String cursor, int limit) {
         // Only admins can access - will be enforced by SecurityConfig
-        List<Order> orders = orderRepository.findByStatusOrderByOrderDateDesc(status);
-        orders.forEach(this::enrichOrderWithItemDetails);
-        return orders;
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPageByStatus(status, pageable);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageByStatusAfter(
+                    status, after.getOrderDate(), after.getId(), pageable);
+        }
+        return toPage(orders, limit);
+    }
+
+    private OrderPage toPage(List<Order> orders, int limit) {
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = new ArrayList<>(orders.subList(0, limit));
+            Order last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+
+        enrichOrdersWithItemDetails(orders);
+        return new OrderPage(orders, nextCursor);
     }
 
     public List<Order> getUserOrdersByStatus(Long userId, String status) {
         validateUserAccess(userId);
 
         List<Order> orders = orderRepository.findByUserIdAndStatusOrderByOrderDateDesc(userId, status);
-        orders.forEach(this::enrichOrderWithItemDetails);
+        enrichOrdersWithItemDetails(orders);
         return orders;
     }
 
-    private void enrichOrderWithItemDetails(Order order) {
+    /**
+     * Streams matching orders to the output as newline-delimited JSON, one order per line.
+     * Orders are streamed row by row on a dedicated connection and processed in
+     * fixed-size chunks: each chunk is enriched with one bulk item query (on this
+     * transaction's connection) and written, so memory use stays constant however
+     * many orders are exported.
+     *
+     * @return the number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(String status, LocalDateTime from, LocalDateTime to,
+                             OutputStream out) throws IOException {
+        long written = 0;
+        List<Order> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+
+        try (Stream<Order> orders = orderRepository.streamForExport(status, from, to)) {
+            Iterator<Order> it = orders.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    written += writeExportChunk(chunk, out);
+                }
+            }
+            written += writeExportChunk(chunk, out);
+        }
+        return written;
+    }
+
+    private int writeExportChunk(List<Order> chunk, OutputStream out) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        enrichOrdersWithItemDetails(chunk);
+
+        for (Order order : chunk) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", order.getId());
+            row.put("userId", order.getUser().getId());
+            row.put("userEmail", order.getUser().getEmail());
+            row.put("orderDate", order.getOrderDate().toString());
+            row.put("status", order.getStatus());
+            row.put("paymentMethod", order.getPaymentmethod());
+            row.put("items", order.getItems());
+            row.put("itemDetails", order.getItemDetails());
+
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        }
+        out.flush();
+
+        int count = chunk.size();
+        chunk.clear();
+        // Detach the items loaded for this chunk so the persistence context does not grow
+        entityManager.clear();
+        return count;
+    }
+
+    /**
+     * Fills in itemDetails for every order in the list.
+     * All distinct item IDs are looked up at once (cache first, then one bulk query)
+     * and shared across orders.
+     */
+    private void enrichOrdersWithItemDetails(List<Order> orders) {
+        Set<Long> itemIds = new HashSet<>();
+        for (Order order : orders) {
+            itemIds.addAll(order.getItems().keySet());
+        }
+
+        Map<Long, Item> itemsById = itemIds.isEmpty() ? Map.of() : itemService.findAllById(itemIds);
+
+        for (Order order : orders) {
+            enrichOrderWithItemDetails(order, itemsById);
+        }
+    }
+
+    private void enrichOrderWithItemDetails(Order order, Map<Long, Item> itemsById) {
         Map<String, Object> itemDetails = new HashMap<>();
 
         for (Map.Entry<Long, Integer> entry : order.getItems().entrySet()) {
             Long itemId = entry.getKey();
             Integer quantity = entry.getValue();
 
-            itemRepository.findById(itemId).ifPresent(item -> {
+            Item item = itemsById.get(itemId);
+            if (item != null) {
                 Map<String, Object> details = new HashMap<>();
                 details.put("itemId", item.getId());
                 details.put("quantity", quantity);
@@ -180,7 +485,7 @@ public class OrderService {
                 details.put("subtotal", item.getPrice() * quantity);
 
                 itemDetails.put(item.getName(), details);
-            });
+            }
         }
 
         order.setItemDetails(itemDetails);
@@ -204,30 +509,52 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
-    @Transactional
+    /**
+     * Cancels the order and returns its items to stock. Runs in its own
+     * transaction and is retried if the order or an item is changed concurrently.
+     */
     public void cancelOrder(Long orderId) {
+        optimisticRetry.inTransaction("order.cancel", () -> {
+            cancelOrderOnce(orderId);
+            return null;
+        });
+    }
+
+    private void cancelOrderOnce(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("No order found with this id: " + orderId));
 
         // Validate user can cancel this order
         validateUserAccess(order.getUser().getId());
 
-        if ("DELIVERED".equals(order.getStatus()) || "CANCELLED".equals(order.getStatus())) {
+        if ("DELIVERED".equals(order.getStatus()) || "CANCELLED".equals(order.getStatus())
+                || "FAILED".equals(order.getStatus())) {
             throw new RuntimeException("Cannot cancel order with status: " + order.getStatus());
         }
 
-        // Restore item quantities back to inventory
-        Map<Long, Integer> orderItems = order.getItems();
-        for (Map.Entry<Long, Integer> entry : orderItems.entrySet()) {
-            Long itemId = entry.getKey();
-            Integer quantityOrdered = entry.getValue();
+        // Not processed yet, so no stock was taken. If a checkout worker reserves
+        // stock concurrently, one of the two commits fails its version check and
+        // is retried against the other's result.
+        if ("PENDING".equals(order.getStatus())) {
+            order.setStatus("CANCELLED");
+            orderRepository.save(order);
+            return;
+        }
 
-            Item item = itemRepository.findById(itemId)
-                    .orElseThrow(() -> new RuntimeException("Item not found with id: " + itemId));
+        // Restore item quantities back to inventory (one batched UPDATE per line)
+        ItemQuantityMap orderItems = order.getItems();
+        long[] itemIds = sortedItemIds(orderItems);
+        int[] quantities = new int[itemIds.length];
+        for (int i = 0; i < itemIds.length; i++) {
+            quantities[i] = orderItems.getQuantity(itemIds[i]);
+        }
 
-            // Restore quantity
-            item.setQuantity(item.getQuantity() + quantityOrdered);
-            itemRepository.save(item);
+        boolean[] restocked = inventoryRepository.restock(itemIds, quantities);
+        itemService.invalidate(orderItems.keySet());
+        for (int i = 0; i < restocked.length; i++) {
+            if (!restocked[i]) {
+                throw new RuntimeException("Item not found with id: " + itemIds[i]);
+            }
         }
 
         order.setStatus("CANCELLED");
@@ -241,5 +568,12 @@ public class OrderService {
         if ("CANCELLED".equals(currentStatus)) {
             throw new RuntimeException("Cannot change status of cancelled order");
         }
+        // PENDING means "stock not reserved yet"; only the checkout workers move orders in or out of it
+        if ("PENDING".equals(currentStatus) || "PENDING".equals(newStatus)) {
+            throw new RuntimeException("Cannot change status of an order awaiting processing");
+        }
+        if ("FAILED".equals(currentStatus)) {
+            throw new RuntimeException("Cannot change status of failed order");
+        }
     }
 }
\ No newline at end of file
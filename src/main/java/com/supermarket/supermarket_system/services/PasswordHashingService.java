@@ -0,0 +1,133 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.exceptions.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, size-capped thread pool.
+ *
+ * BCrypt is deliberately CPU-heavy. Running it on request threads lets a login
+ * spike starve catalog and cart traffic; here at most {@code threads} hashes run
+ * at once and at most {@code queue-capacity} wait. When the queue is full, or a
+ * hash waits longer than {@code max-wait-ms}, the caller gets a
+ * {@link TooManyRequestsException} (HTTP 429) instead of piling up.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public PasswordHashingService(
+            BCryptPasswordEncoder passwordEncoder,
+            @Value("${supermarket.security.hashing.threads:0}") int threads,
+            @Value("${supermarket.security.hashing.queue-capacity:100}") int queueCapacity,
+            @Value("${supermarket.security.hashing.max-wait-ms:5000}") long maxWaitMillis) {
+        // 0 = half of the available cores, leaving the rest for request handling.
+        // Always platform threads, even with virtual threads enabled: BCrypt is
+        // CPU-bound and this pool exists precisely to cap how many run at once.
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.passwordEncoder = passwordEncoder;
+        this.maxWaitMillis = maxWaitMillis;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreads("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Re-hashes a verified password whose stored hash uses a lower cost than
+     * the configured one.
+     *
+     * @return the new hash, or null if the stored hash is already current
+     */
+    public String rehashIfOutdated(String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return null;
+        }
+        return encode(rawPassword);
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "poolSize", executor.getMaximumPoolSize(),
+                "active", executor.getActiveCount(),
+                "queueDepth", executor.getQueue().size(),
+                "queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity(),
+                "completed", executor.getCompletedTaskCount(),
+                "rejected", rejected.get(),
+                "timedOut", timedOut.get()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException("Server is busy, please try again shortly");
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new TooManyRequestsException("Server is busy, please try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
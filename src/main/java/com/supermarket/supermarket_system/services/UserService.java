@@ -1,9 +1,10 @@
 package com.supermarket.supermarket_system.services;
 
+import com.supermarket.supermarket_system.exceptions.TooManyRequestsException;
 import com.supermarket.supermarket_system.models.User;
 import com.supermarket.supermarket_system.repositories.UserRepository;
+import com.supermarket.supermarket_system.security.LoginAttemptLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -13,12 +14,16 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final JwtService jwtService;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHashingService passwordHashing;
+    private final LoginAttemptLimiter loginLimiter;
 
     @Autowired
-    public UserService(UserRepository userRepository, JwtService jwtService) {
+    public UserService(UserRepository userRepository, JwtService jwtService,
+                       PasswordHashingService passwordHashing, LoginAttemptLimiter loginLimiter) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
+        this.passwordHashing = passwordHashing;
+        this.loginLimiter = loginLimiter;
     }
 
     public User registerUser(String name, String email, String password, String phone, String address, String role) {
@@ -26,23 +31,44 @@ public class UserService {
             throw new RuntimeException("Email already exists!");
         }
 
-        String hashedPassword = passwordEncoder.encode(password);
+        String hashedPassword = passwordHashing.encode(password);
         User newUser = new User(name, email, hashedPassword, phone, address, role);
         return userRepository.save(newUser);
     }
 
-    public String loginUser(String email, String password) {
+    public String loginUser(String email, String password, String clientIp) {
+        // Throttle before touching the database or spending CPU on BCrypt
+        if (!loginLimiter.tryAcquire(email, clientIp)) {
+            throw new TooManyRequestsException("Too many login attempts, please try again later");
+        }
+
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isEmpty()) {
             throw new RuntimeException("Invalid email or password");
         }
 
         User user = userOpt.get();
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashing.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid email or password");
         }
 
+        loginLimiter.reset(email);
+        upgradePasswordHash(user, password);
+
         // Generate JWT Token
-        return jwtService.generateToken(user.getEmail(), user.getRole());
+        return jwtService.generateToken(user.getEmail(), user.getRole(), user.getId());
+    }
+
+    // Hashes made under an older, cheaper cost are replaced on the next successful login
+    private void upgradePasswordHash(User user, String password) {
+        try {
+            String upgraded = passwordHashing.rehashIfOutdated(password, user.getPassword());
+            if (upgraded != null) {
+                user.setPassword(upgraded);
+                userRepository.save(user);
+            }
+        } catch (TooManyRequestsException e) {
+            // Pool is saturated; the upgrade is retried on a later login
+        }
     }
-}
\ No newline at end of file
+}
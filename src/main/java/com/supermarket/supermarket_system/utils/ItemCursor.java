@@ -0,0 +1,72 @@
+package com.supermarket.supermarket_system.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for filtered item listings.
+ * Wraps the sort property, its value and the id of the last item on a page as a
+ * URL-safe token, so the next page continues after it instead of skipping rows.
+ */
+public final class ItemCursor {
+
+    private static final char SEPARATOR = '|';
+    private static final char VALUE_MARKER = '=';
+
+    private final String sort;
+    private final String value;
+    private final Long id;
+
+    /**
+     * @param sort  sort property the page was listed by, e.g. "price"
+     * @param value that property's value on the last item (null if the item has none)
+     * @param id    id of the last item
+     */
+    public ItemCursor(String sort, String value, Long id) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String getSort() { return sort; }
+
+    public String getValue() { return value; }
+
+    public Long getId() { return id; }
+
+    /**
+     * Encodes this cursor as a URL-safe token
+     */
+    public String encode() {
+        String raw = sort + SEPARATOR + (value == null ? "" : VALUE_MARKER + value) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ItemCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The value may itself contain the separator, so split on the first and last one
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first <= 0 || last == first) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String value = raw.substring(first + 1, last);
+            if (!value.isEmpty() && value.charAt(0) != VALUE_MARKER) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ItemCursor(
+                    raw.substring(0, first),
+                    value.isEmpty() ? null : value.substring(1),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
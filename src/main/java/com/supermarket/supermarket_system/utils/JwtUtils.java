@@ -12,6 +12,9 @@ package com.supermarket.supermarket_system.utils;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 
+// Identity extracted from a verified token
+import com.supermarket.supermarket_system.security.JwtPrincipal;
+
 // Spring annotation to let Spring auto-detect and manage this class as a Bean
 import org.springframework.stereotype.Component;
 
@@ -45,14 +48,18 @@ public class JwtUtils {
     private static final long EXPIRATION_TIME = 1000 * 60 * 60;
 
     // ----------------------
-    // SIGNING KEY HANDLER
+    // SIGNING KEY & PARSER
     // ----------------------
 
     // Converts the secret string into a cryptographic signing key.
     // This ensures JJWT can safely sign and verify tokens.
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
-    }
+    // Built once per instance, since the secret never changes.
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+
+    // The parser is immutable and thread-safe, so this one instance is shared.
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey) // Must match key used in signing
+            .build();
 
     // ----------------------
     // TOKEN GENERATION
@@ -63,15 +70,17 @@ public class JwtUtils {
      *
      * @param email The unique user identifier (will be stored as "sub" in the payload)
      * @param role The user’s role (stored as a custom claim)
+     * @param userId The user's database ID (stored as a custom claim for ownership checks)
      * @return A compact JWT string (Header.Payload.Signature)
      */
-    public String generateToken(String email, String role) {
+    public String generateToken(String email, String role, Long userId) {
         return Jwts.builder()
                 .setSubject(email) // Standard claim: "sub"
                 .claim("role", role)  // Custom claim: "role"
+                .claim("uid", userId) // Custom claim: "uid"
                 .setIssuedAt(new Date()) // "iat": issued at
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME)) // "exp"
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // HMAC-SHA256 signing
+                .signWith(signingKey, SignatureAlgorithm.HS256) // HMAC-SHA256 signing
                 .compact(); // Serialize into final token string
     }
 
@@ -87,10 +96,7 @@ public class JwtUtils {
      * @return The parsed token as a Jws<Claims> object
      */
     private Jws<Claims> parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey()) // Must match key used in signing
-                .build()
-                .parseClaimsJws(token); // Throws exception if invalid or expired
+        return parser.parseClaimsJws(token); // Throws exception if invalid or expired
     }
 
     // ----------------------
@@ -135,6 +141,29 @@ public class JwtUtils {
     // TOKEN VALIDATION
     // ----------------------
 
+    /**
+     * Verifies a token and reads the email, role and expiry from that same
+     * parse, instead of parsing the token again for each claim.
+     *
+     * @param token The JWT token string to verify.
+     * @return The token's principal, or null if the token is invalid or expired.
+     */
+    public JwtPrincipal verify(String token) {
+        try {
+            Claims claims = parseToken(token).getBody();
+            Date expiration = claims.getExpiration(); // Always set by generateToken()
+            Number userId = claims.get("uid", Number.class); // Absent on older tokens
+            return new JwtPrincipal(
+                    userId != null ? userId.longValue() : null,
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    expiration != null ? expiration.toInstant() : null);
+        } catch (JwtException | IllegalArgumentException e) {
+            // JwtException covers: expired, malformed, signature issues, etc.
+            return null;
+        }
+    }
+
     /**
      * Validates a JWT token’s integrity and expiration.
      * Returns true if valid, false otherwise.
@@ -0,0 +1,56 @@
+package com.supermarket.supermarket_system.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for order listings.
+ * Wraps the (orderDate, id) of the last order on a page as a URL-safe token.
+ */
+public final class OrderCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime orderDate;
+    private final Long id;
+
+    public OrderCursor(LocalDateTime orderDate, Long id) {
+        this.orderDate = orderDate;
+        this.id = id;
+    }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+
+    public Long getId() { return id; }
+
+    /**
+     * Encodes this cursor as a URL-safe token
+     */
+    public String encode() {
+        String raw = orderDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            if (split <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, split)),
+                    Long.parseLong(raw.substring(split + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
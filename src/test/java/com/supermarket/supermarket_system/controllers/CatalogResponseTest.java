@@ -0,0 +1,190 @@
+package com.supermarket.supermarket_system.controllers;
+
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.services.ItemService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /items without parameters: the pre-serialized catalog snapshot with its
+ * ETag revalidation, gzip negotiation, and rebuild after item writes. Runs
+ * against the configured database, like the context-load test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogResponseTest {
+
+    private static final String CATEGORY = "catalog-response-test";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ItemService itemService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        itemIds.add(itemService.createItem(new Item("Catalog response milk", 1.25, 5, CATEGORY, null)).getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Through the service, so the cached snapshot forgets the items too
+        for (Long id : itemIds) {
+            itemService.deleteItem(id);
+        }
+        jdbcTemplate.update("DELETE FROM items WHERE category = ?", CATEGORY);
+    }
+
+    // ----------------------
+    // ETAG REVALIDATION
+    // ----------------------
+
+    @Test
+    void servesTheCatalogWithAnEtag() throws Exception {
+        MvcResult result = mockMvc.perform(get("/items"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.matches("\"[0-9a-f]{32}\""), etag);
+        assertTrue(body(result).contains("Catalog response milk"));
+    }
+
+    @Test
+    void matchingIfNoneMatchGetsNotModifiedWithoutABody() throws Exception {
+        String etag = etag(null);
+
+        for (String ifNoneMatch : List.of(etag, "W/" + etag, "\"stale\", W/" + etag, "*")) {
+            MvcResult result = mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andReturn();
+            assertEquals(0, result.getResponse().getContentAsByteArray().length, ifNoneMatch);
+        }
+
+        mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void itemWriteRebuildsTheSnapshot() throws Exception {
+        String before = etag(null);
+
+        itemIds.add(itemService.createItem(new Item("Catalog response bread", 2.5, 3, CATEGORY, null)).getId());
+
+        MvcResult created = mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn();
+        String afterCreate = created.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(before, afterCreate);
+        assertTrue(body(created).contains("Catalog response bread"));
+
+        Item renamed = new Item("Catalog response rye bread", 2.5, 3, CATEGORY, null);
+        itemService.updateItem(itemIds.get(1), renamed);
+
+        MvcResult updated = mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, afterCreate))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(afterCreate, updated.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(body(updated).contains("Catalog response rye bread"));
+
+        itemService.deleteItem(itemIds.remove(1));
+        MvcResult deleted = mockMvc.perform(get("/items")).andExpect(status().isOk()).andReturn();
+        assertEquals(before, deleted.getResponse().getHeader(HttpHeaders.ETAG));
+        assertFalse(body(deleted).contains("Catalog response rye bread"));
+    }
+
+    // ----------------------
+    // CONTENT ENCODING
+    // ----------------------
+
+    @Test
+    void gzipIsServedWhenAcceptedWithItsOwnEtag() throws Exception {
+        MvcResult identity = mockMvc.perform(get("/items")).andReturn();
+        MvcResult gzip = mockMvc.perform(get("/items").header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        String identityEtag = identity.getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipEtag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(identityEtag.replaceFirst("\"$", "-gzip\""), gzipEtag);
+        assertArrayEquals(identity.getResponse().getContentAsByteArray(),
+                gunzip(gzip.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void identityIsServedWhenGzipIsNotAccepted() throws Exception {
+        for (String acceptEncoding : List.of("identity", "br, deflate", "gzip;q=0", "GZIP; q=0.0")) {
+            mockMvc.perform(get("/items").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.ETAG, etag(null)));
+        }
+    }
+
+    @Test
+    void etagOfOneEncodingDoesNotRevalidateTheOther() throws Exception {
+        String identityEtag = etag(null);
+        String gzipEtag = etag("gzip");
+
+        mockMvc.perform(get("/items").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, identityEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etag(String acceptEncoding) throws Exception {
+        var request = get("/items");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static String body(MvcResult result) {
+        return new String(result.getResponse().getContentAsByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
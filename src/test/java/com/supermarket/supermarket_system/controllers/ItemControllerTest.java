@@ -0,0 +1,70 @@
+package com.supermarket.supermarket_system.controllers;
+
+import com.supermarket.supermarket_system.models.ItemSuggestion;
+import com.supermarket.supermarket_system.services.ItemImportService;
+import com.supermarket.supermarket_system.services.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request handling of the item endpoints, with ItemService mocked out.
+ */
+@ExtendWith(MockitoExtension.class)
+class ItemControllerTest {
+
+    @Mock private ItemService itemService;
+    @Mock private ItemImportService itemImportService;
+    @InjectMocks private ItemController itemController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(itemController).build();
+    }
+
+    // ----------------------
+    // SUGGEST
+    // ----------------------
+
+    @Test
+    void suggestDefaultsToTenResultsAndHidesPopularity() throws Exception {
+        when(itemService.suggest("choc", 10)).thenReturn(List.of(new ItemSuggestion(2L, "Chocolate milk", 50)));
+
+        mockMvc.perform(get("/items/suggest").param("prefix", "choc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].name").value("Chocolate milk"))
+                .andExpect(jsonPath("$[0].popularity").doesNotExist());
+    }
+
+    @Test
+    void suggestCapsTheLimitAtTwenty() throws Exception {
+        mockMvc.perform(get("/items/suggest").param("prefix", "choc").param("limit", "500"))
+                .andExpect(status().isOk());
+
+        verify(itemService).suggest("choc", 20);
+    }
+
+    @Test
+    void suggestAsksForAtLeastOneResult() throws Exception {
+        mockMvc.perform(get("/items/suggest").param("prefix", "choc").param("limit", "-3"))
+                .andExpect(status().isOk());
+
+        verify(itemService).suggest("choc", 1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.supermarket.supermarket_system.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Login throttling keys on the client's address resolved by Tomcat from
+ * X-Forwarded-For (the test client connects from loopback, a trusted proxy),
+ * so clients behind one proxy get separate IP windows.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "supermarket.security.login-limit.per-ip=2",
+        "supermarket.security.login-limit.per-email=100"
+})
+class LoginClientAddressTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void clientsBehindOneProxyHaveSeparateIpWindows() {
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("nobody1@forwarded.test", "203.0.113.5"));
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("nobody2@forwarded.test", "203.0.113.5"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("nobody3@forwarded.test", "203.0.113.5"));
+
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("nobody4@forwarded.test", "198.51.100.7"));
+    }
+
+    private HttpStatus login(String email, String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        Map<String, String> body = Map.of("email", email, "password", "wrong-password");
+        return HttpStatus.valueOf(restTemplate.postForEntity("/users/login", new HttpEntity<>(body, headers), String.class)
+                .getStatusCode().value());
+    }
+}
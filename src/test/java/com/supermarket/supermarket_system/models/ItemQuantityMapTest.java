@@ -0,0 +1,147 @@
+package com.supermarket.supermarket_system.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks ItemQuantityMap against java.util.HashMap, including the parts
+ * HashMap does not have: the separately stored key 0, backward-shift
+ * deletion and table growth.
+ */
+class ItemQuantityMapTest {
+
+    @Test
+    void copyRoundTripKeepsEveryLine() {
+        Map<Long, Integer> source = new HashMap<>();
+        for (long id = 0; id < 500; id++) {
+            source.put(id * 31, (int) id + 1);
+        }
+
+        ItemQuantityMap lines = new ItemQuantityMap(source);
+        ItemQuantityMap copy = new ItemQuantityMap(lines);
+
+        assertEquals(source, lines);
+        assertEquals(source, copy);
+        assertEquals(lines, new HashMap<>(copy));
+        assertEquals(source.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    void zeroKeyIsAnOrdinaryItem() {
+        ItemQuantityMap lines = new ItemQuantityMap();
+        assertFalse(lines.containsItem(0));
+        assertEquals(0, lines.getQuantity(0));
+        assertNull(lines.get(0L));
+
+        lines.putQuantity(0, 5);
+        lines.putQuantity(1, 7);
+        assertTrue(lines.containsKey(0L));
+        assertEquals(5, lines.getQuantity(0));
+        assertEquals(2, lines.size());
+        assertEquals(Map.of(0L, 5, 1L, 7), new HashMap<>(lines));
+
+        lines.addQuantity(0, 3);
+        assertEquals(8, (int) lines.get(0L));
+
+        assertEquals(8, (int) lines.remove(0L));
+        assertFalse(lines.removeItem(0));
+        assertEquals(Map.of(1L, 7), new HashMap<>(lines));
+    }
+
+    @Test
+    void removingFromCollidingRunsKeepsTheRestReachable() {
+        // Many keys in a table that starts at 4 slots: long probe runs, wrap-around and growth
+        ItemQuantityMap lines = new ItemQuantityMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (long id = 1; id <= 64; id++) {
+            lines.putQuantity(id, (int) id);
+            expected.put(id, (int) id);
+        }
+
+        // Remove every third key, then every other remaining key, checking all survivors each time
+        for (int step : new int[]{3, 2}) {
+            Long[] keys = expected.keySet().toArray(new Long[0]);
+            for (int i = 0; i < keys.length; i += step) {
+                assertTrue(lines.removeItem(keys[i]));
+                expected.remove(keys[i]);
+                for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                    assertEquals((int) entry.getValue(), lines.getQuantity(entry.getKey()), "lost key " + entry.getKey());
+                }
+            }
+        }
+        assertEquals(expected, new HashMap<>(lines));
+    }
+
+    @Test
+    void growsPastManyResizes() {
+        ItemQuantityMap lines = new ItemQuantityMap(0);
+        for (long id = 1; id <= 100_000; id++) {
+            lines.putQuantity(id * 1_000_003L, (int) (id % 97));
+        }
+        assertEquals(100_000, lines.size());
+        for (long id = 1; id <= 100_000; id++) {
+            assertEquals((int) (id % 97), lines.getQuantity(id * 1_000_003L));
+        }
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        ItemQuantityMap lines = new ItemQuantityMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int op = 0; op < 200_000; op++) {
+            // A small key range, including 0 and negatives, forces collisions and re-inserts
+            long key = random.nextInt(200) - 20;
+            int value = random.nextInt(1000);
+            switch (random.nextInt(5)) {
+                case 0, 1 -> assertEquals(expected.put(key, value), lines.put(key, value));
+                case 2 -> assertEquals(expected.remove(key), lines.remove(key));
+                case 3 -> {
+                    expected.merge(key, value, Integer::sum);
+                    lines.addQuantity(key, value);
+                }
+                default -> assertEquals(expected.get(key), lines.get(key));
+            }
+            assertEquals(expected.size(), lines.size());
+            if (op % 1000 == 0) {
+                assertEquals(expected, new HashMap<>(lines));
+            }
+            if (op % 50_000 == 0) {
+                lines.clear();
+                expected.clear();
+            }
+        }
+        assertEquals(expected, new HashMap<>(lines));
+    }
+
+    @Test
+    void forEachLineAndIteratorVisitEveryLineOnce() {
+        ItemQuantityMap lines = new ItemQuantityMap();
+        for (long id = 0; id < 50; id++) {
+            lines.putQuantity(id, (int) id * 2);
+        }
+
+        Map<Long, Integer> visited = new HashMap<>();
+        lines.forEachLine((itemId, quantity) -> assertNull(visited.put(itemId, quantity)));
+        assertEquals(lines, visited);
+
+        Map<Long, Integer> iterated = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : lines.entrySet()) {
+            assertNull(iterated.put(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(lines, iterated);
+
+        var iterator = lines.entrySet().iterator();
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+}
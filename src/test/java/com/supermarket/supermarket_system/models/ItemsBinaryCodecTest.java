@@ -0,0 +1,148 @@
+package com.supermarket.supermarket_system.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips through the binary items format, with emphasis on the varint and
+ * zigzag boundaries and on item ID deltas that wrap around (negative IDs).
+ */
+class ItemsBinaryCodecTest {
+
+    private static final long[] EDGE_IDS = {
+            0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, 1L << 35, (1L << 56) - 1, 1L << 56,
+            Long.MAX_VALUE, -1, -128, Integer.MIN_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE
+    };
+
+    private static final int[] EDGE_QUANTITIES = {
+            0, 1, -1, 63, -64, 64, -65, 8_191, -8_192, 8_192, Integer.MAX_VALUE, Integer.MIN_VALUE
+    };
+
+    @Test
+    void roundTripsEdgeIdsAndQuantities() {
+        ItemQuantityMap lines = new ItemQuantityMap();
+        for (int i = 0; i < EDGE_IDS.length; i++) {
+            lines.putQuantity(EDGE_IDS[i], EDGE_QUANTITIES[i % EDGE_QUANTITIES.length]);
+        }
+
+        assertEquals(lines, roundTrip(lines));
+    }
+
+    @Test
+    void roundTripsEveryQuantityBoundaryOnItsOwn() {
+        for (int quantity : EDGE_QUANTITIES) {
+            ItemQuantityMap lines = new ItemQuantityMap();
+            lines.putQuantity(42, quantity);
+            assertEquals(lines, roundTrip(lines), "quantity " + quantity);
+        }
+    }
+
+    @Test
+    void negativeIdsProduceWrappingDeltas() {
+        // Sorted: MIN_VALUE, -5, 3, MAX_VALUE; the first and last deltas wrap around
+        ItemQuantityMap lines = new ItemQuantityMap();
+        lines.putQuantity(Long.MIN_VALUE, 1);
+        lines.putQuantity(-5, 2);
+        lines.putQuantity(3, 3);
+        lines.putQuantity(Long.MAX_VALUE, 4);
+
+        assertEquals(lines, roundTrip(lines));
+    }
+
+    @Test
+    void smallSortedIdsStayCompact() {
+        ItemQuantityMap lines = new ItemQuantityMap();
+        lines.putQuantity(300, 2);
+        lines.putQuantity(1, 1);
+        lines.putQuantity(2, -1);
+
+        // version, count, then (delta, zigzag quantity) per line in ID order
+        byte[] expected = {ItemsBinaryCodec.VERSION_1, 3, 1, 2, 1, 1, (byte) 0xAA, 0x02, 4};
+        assertArrayEquals(expected, ItemsBinaryCodec.encode(lines));
+    }
+
+    @Test
+    void randomMapsRoundTrip() {
+        Random random = new Random(3);
+        for (int round = 0; round < 1000; round++) {
+            ItemQuantityMap lines = new ItemQuantityMap(ItemsJsonCodecTest.randomLines(random));
+            assertEquals(lines, roundTrip(lines));
+        }
+    }
+
+    @Test
+    void largeMapsOutgrowTheReusableBuffer() {
+        ItemQuantityMap lines = new ItemQuantityMap();
+        for (long id = 1; id <= 20_000; id++) {
+            lines.putQuantity(id * 7_919, (int) (id % 500) - 250);
+        }
+        assertEquals(lines, roundTrip(lines));
+        assertEquals(lines, roundTrip(lines));
+    }
+
+    @Test
+    void binaryRowsNeverLookLikeJson() {
+        assertTrue(ItemsBinaryCodec.isBinary(ItemsBinaryCodec.encode(new ItemQuantityMap())));
+        for (String json : new String[]{"{}", " {}", "\n{}"}) {
+            assertFalse(ItemsBinaryCodec.isBinary(json.getBytes()), json);
+        }
+    }
+
+    @Test
+    void converterReadsBothFormatsWhateverItWrites() {
+        ItemsMapConverter jsonConverter = new ItemsMapConverter("json");
+        ItemsMapConverter binaryConverter = new ItemsMapConverter("BINARY");
+        ItemQuantityMap lines = new ItemQuantityMap(Map.of(1L, 2, 300L, -4, -7L, 9));
+
+        byte[] json = jsonConverter.convertToDatabaseColumn(lines);
+        byte[] binary = binaryConverter.convertToDatabaseColumn(lines);
+
+        assertFalse(ItemsBinaryCodec.isBinary(json));
+        assertTrue(ItemsBinaryCodec.isBinary(binary));
+        for (ItemsMapConverter converter : List.of(jsonConverter, binaryConverter)) {
+            assertEquals(lines, converter.convertToEntityAttribute(json));
+            assertEquals(lines, converter.convertToEntityAttribute(binary));
+        }
+    }
+
+    @Test
+    void converterRejectsUnknownEncoding() {
+        assertThrows(IllegalStateException.class, () -> new ItemsMapConverter("protobuf"));
+    }
+
+    @Test
+    void rejectsTruncatedAndCorruptData() {
+        ItemQuantityMap lines = new ItemQuantityMap(Map.of(1L, 1, 1_000_000L, 1_000_000));
+        byte[] encoded = ItemsBinaryCodec.encode(lines);
+
+        for (int length = 1; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> ItemsBinaryCodec.decode(truncated), "length " + length);
+        }
+
+        byte[] hugeCount = {ItemsBinaryCodec.VERSION_1, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        assertThrows(IllegalArgumentException.class, () -> ItemsBinaryCodec.decode(hugeCount));
+
+        byte[] endlessVarint = new byte[12];
+        Arrays.fill(endlessVarint, (byte) 0xFF);
+        endlessVarint[0] = ItemsBinaryCodec.VERSION_1;
+        assertThrows(IllegalArgumentException.class, () -> ItemsBinaryCodec.decode(endlessVarint));
+    }
+
+    private static Map<Long, Integer> roundTrip(ItemQuantityMap lines) {
+        byte[] encoded = ItemsBinaryCodec.encode(lines);
+        assertTrue(ItemsBinaryCodec.isBinary(encoded));
+        return new HashMap<>(ItemsBinaryCodec.decode(encoded));
+    }
+}
@@ -0,0 +1,49 @@
+package com.supermarket.supermarket_system.models;
+
+import com.supermarket.supermarket_system.repositories.CartRepository;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * supermarket.line-items.encoding reaches the converter Hibernate uses, per
+ * application context: this context writes binary while the others write JSON.
+ */
+@SpringBootTest(properties = "supermarket.line-items.encoding=binary")
+class ItemsColumnEncodingTest {
+
+    private static final String EMAIL = "encoding@items-column.test";
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id IN (SELECT id FROM users WHERE email = ?)", EMAIL);
+        jdbcTemplate.update("DELETE FROM users WHERE email = ?", EMAIL);
+    }
+
+    @Test
+    void writesTheConfiguredEncoding() {
+        User user = userRepository.save(new User("Encoding", EMAIL, "secret", "123", "Street", "USER"));
+        Cart cart = new Cart(user);
+        cart.addItem(12L, 3);
+        cart.addItem(40L, 1);
+        Long cartId = cartRepository.save(cart).getId();
+
+        byte[] column = jdbcTemplate.queryForObject("SELECT items FROM carts WHERE id = ?", byte[].class, cartId);
+
+        assertTrue(ItemsBinaryCodec.isBinary(column));
+        assertEquals(Map.of(12L, 3, 40L, 1), new HashMap<>(cartRepository.findById(cartId).orElseThrow().getItems()));
+    }
+}
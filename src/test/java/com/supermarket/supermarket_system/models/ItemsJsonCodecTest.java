@@ -0,0 +1,126 @@
+package com.supermarket.supermarket_system.models;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The hand-rolled JSON codec must read and write exactly what Jackson does for
+ * Map<Long, Integer>, and hand anything else to the converter's Jackson fallback.
+ */
+class ItemsJsonCodecTest {
+
+    private static final TypeReference<Map<Long, Integer>> LINES = new TypeReference<>() {};
+
+    private final ObjectMapper jackson = new ObjectMapper();
+    private final ItemsMapConverter converter = new ItemsMapConverter();
+
+    @Test
+    void decodesWhatJacksonWrites() throws Exception {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            Map<Long, Integer> lines = randomLines(random);
+            String json = jackson.writeValueAsString(lines);
+
+            assertEquals(lines, new HashMap<>(ItemsJsonCodec.decode(json)), json);
+        }
+    }
+
+    @Test
+    void jacksonReadsWhatTheCodecWrites() throws Exception {
+        Random random = new Random(11);
+        for (int round = 0; round < 500; round++) {
+            Map<Long, Integer> lines = randomLines(random);
+            String json = ItemsJsonCodec.encode(new ItemQuantityMap(lines));
+
+            assertEquals(lines, jackson.readValue(json, LINES), json);
+        }
+    }
+
+    @Test
+    void acceptsWhitespaceQuotedAndFractionalValues() throws Exception {
+        String json = " {\n \"1\" : 3 ,\t\"2\":\"4\", \"3\": 5.0, \"-4\": -6 } ";
+
+        assertEquals(jackson.readValue(json, LINES), new HashMap<>(ItemsJsonCodec.decode(json)));
+        assertEquals(Map.of(), new HashMap<>(ItemsJsonCodec.decode("{ }")));
+    }
+
+    @Test
+    void rejectsTextOutsideTheSimpleFormat() {
+        String[] rejected = {
+                "", "[]", "{", "{\"1\":}", "{\"1\" 2}", "{\"1\":2,}", "{\"1\":2} x",
+                "{\"a\":1}", "{\"1\":1e2}", "{\"1\":2.}", "{\"1\":\"2}",
+                "{\"1\":2147483648}", "{\"1234567890123456789\":1}", "{\"\\u0031\":1}"
+        };
+        for (String json : rejected) {
+            assertNull(ItemsJsonCodec.decode(json), json);
+        }
+    }
+
+    @Test
+    void converterFallsBackToJacksonForValidJsonTheCodecRejects() throws Exception {
+        String[] fallback = {
+                "{\"9223372036854775807\":1,\"-9223372036854775808\":2}",
+                "{\"\\u0031\\u0032\":3}",
+                "{\"5\":1e2}"
+        };
+        for (String json : fallback) {
+            assertNull(ItemsJsonCodec.decode(json), json);
+
+            ItemQuantityMap decoded = converter.convertToEntityAttribute(json.getBytes(StandardCharsets.UTF_8));
+            assertEquals(jackson.readValue(json, LINES), new HashMap<>(decoded), json);
+        }
+    }
+
+    @Test
+    void converterRejectsMalformedRows() {
+        for (String json : new String[]{"[1,2]", "{\"a\":1}", "{\"1\":"}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> converter.convertToEntityAttribute(json.getBytes(StandardCharsets.UTF_8)), json);
+        }
+    }
+
+    @Test
+    void converterRoundTripsThroughTheJsonColumn() {
+        Random random = new Random(13);
+        for (int round = 0; round < 200; round++) {
+            ItemQuantityMap lines = new ItemQuantityMap(randomLines(random));
+
+            byte[] column = converter.convertToDatabaseColumn(lines);
+            assertEquals(lines, converter.convertToEntityAttribute(column));
+        }
+        assertEquals(Map.of(), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(null)));
+    }
+
+    // Up to 50 lines, with extreme and negative IDs and quantities mixed in
+    static Map<Long, Integer> randomLines(Random random) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        int count = random.nextInt(51);
+        for (int i = 0; i < count; i++) {
+            long itemId = switch (random.nextInt(4)) {
+                case 0 -> random.nextInt(1000);
+                case 1 -> random.nextLong() % 1_000_000_000_000_000L;
+                case 2 -> -random.nextInt(1000);
+                default -> 0;
+            };
+            int quantity = switch (random.nextInt(4)) {
+                case 0 -> random.nextInt(100);
+                case 1 -> random.nextInt();
+                case 2 -> Integer.MIN_VALUE;
+                default -> Integer.MAX_VALUE;
+            };
+            lines.put(itemId, quantity);
+        }
+        return lines;
+    }
+}
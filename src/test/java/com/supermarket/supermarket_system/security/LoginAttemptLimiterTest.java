@@ -0,0 +1,73 @@
+package com.supermarket.supermarket_system.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-IP and per-email login windows: the IP is checked before the email,
+ * each window caps its attempts, and the number of tracked windows is bounded.
+ */
+class LoginAttemptLimiterTest {
+
+    @Test
+    void ipLimitIsCheckedBeforeTheEmail() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(10, 2, 60, 1000);
+
+        assertTrue(limiter.tryAcquire("a@test", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("b@test", "10.0.0.1"));
+        assertFalse(limiter.tryAcquire("c@test", "10.0.0.1"));
+
+        // The blocked attempt opened no window for c@test: one IP plus two emails
+        assertEquals(3, limiter.stats().get("trackedKeys"));
+        assertEquals(1L, limiter.stats().get("blocked"));
+        assertTrue(limiter.tryAcquire("c@test", "10.0.0.2"));
+    }
+
+    @Test
+    void blockedEmailDoesNotThrottleOtherUsersOnTheSameIp() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(2, 50, 60, 1000);
+
+        assertTrue(limiter.tryAcquire("victim@test", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("victim@test", "10.0.0.2"));
+        assertFalse(limiter.tryAcquire("victim@test", "10.0.0.3"));
+
+        assertTrue(limiter.tryAcquire("other@test", "10.0.0.1"));
+    }
+
+    @Test
+    void windowCapsAttemptsUntilResetOrExpiry() throws InterruptedException {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(3, 50, 1, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("user@test", "10.0.0.1"));
+        }
+        assertFalse(limiter.tryAcquire("user@test", "10.0.0.1"));
+
+        limiter.reset("user@test");
+        assertTrue(limiter.tryAcquire("user@test", "10.0.0.1"));
+
+        Thread.sleep(1100);
+        limiter.purgeExpired();
+        assertEquals(0, limiter.stats().get("trackedKeys"));
+        assertTrue(limiter.tryAcquire("user@test", "10.0.0.1"));
+    }
+
+    @Test
+    void trackedWindowsAreCappedOldestFirst() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(1, 1000, 60, 4);
+
+        assertTrue(limiter.tryAcquire("first@test", "10.0.0.1"));
+        assertFalse(limiter.tryAcquire("first@test", "10.0.0.1"));
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user" + i + "@test", "10.0.0.1");
+        }
+
+        assertEquals(4, limiter.stats().get("trackedKeys"));
+        assertTrue((Long) limiter.stats().get("evicted") > 0);
+        // first@test's window was the oldest, so it was dropped along with its count
+        assertTrue(limiter.tryAcquire("first@test", "10.0.0.1"));
+    }
+}
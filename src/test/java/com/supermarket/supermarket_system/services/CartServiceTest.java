@@ -0,0 +1,116 @@
+package com.supermarket.supermarket_system.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.supermarket_system.models.Cart;
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.CartRepository;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import com.supermarket.supermarket_system.security.UserAccessValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Repository calls for cart total recalculation: prices for every line come
+ * from one findAllById, however many lines the cart has. These count calls on
+ * the mocked repository only; CartStatementCountTest counts the SQL itself.
+ */
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    private static final long USER_ID = 7L;
+    private static final int CART_LINES = 100;
+
+    @Mock private CartRepository cartRepo;
+    @Mock private UserRepository userRepo;
+    @Mock private ItemRepository itemRepository;
+    @Mock private LineItemStore lineItems;
+    @Mock private UserAccessValidator accessValidator;
+    @Mock private OptimisticRetry optimisticRetry;
+    @Mock private CartWriteBuffer writeBuffer;
+
+    private CartService cartService;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        ItemService itemService = new ItemService(itemRepository, lineItems, optimisticRetry,
+                new ObjectMapper(), 1000);
+        cartService = new CartService(cartRepo, userRepo, itemService, lineItems, accessValidator,
+                optimisticRetry, writeBuffer);
+
+        // Lines 1..99 are already in the cart; the test adds line 100
+        cart = new Cart(new User("Test", "test@example.com", "secret", "123", "Street", "USER"));
+        for (long id = 1; id < CART_LINES; id++) {
+            cart.addItem(id, 1);
+        }
+
+        when(optimisticRetry.inTransaction(anyString(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(cartRepo.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        when(lineItems.withLines(cart)).thenReturn(cart);
+        when(cartRepo.save(cart)).thenReturn(cart);
+        when(itemRepository.findById((long) CART_LINES)).thenReturn(Optional.of(item(CART_LINES)));
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                found.add(item((Long) id));
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void addItemPricesAHundredLineCartWithOneBulkLookup() {
+        Cart saved = cartService.addItemToCart(USER_ID, (long) CART_LINES, 2);
+
+        verify(itemRepository, times(1)).findById((long) CART_LINES);
+        verify(itemRepository, times(1)).findAllById(anyIterable());
+        assertEquals(CART_LINES, saved.getItems().size());
+        assertEquals(expectedTotal(saved), saved.getTotalPrice(), 1e-9);
+    }
+
+    @Test
+    void cachedPricesAreNotLookedUpAgain() {
+        cartService.addItemToCart(USER_ID, (long) CART_LINES, 1);
+        Cart saved = cartService.addItemToCart(USER_ID, (long) CART_LINES, 1);
+
+        verify(itemRepository, times(1)).findById((long) CART_LINES);
+        verify(itemRepository, times(1)).findAllById(anyIterable());
+        assertEquals(expectedTotal(saved), saved.getTotalPrice(), 1e-9);
+    }
+
+    private static double expectedTotal(Cart cart) {
+        double[] total = {0};
+        cart.getItems().forEachLine((itemId, quantity) -> total[0] += price(itemId) * quantity);
+        return total[0];
+    }
+
+    private static double price(long itemId) {
+        return itemId + 0.5;
+    }
+
+    private static Item item(long id) {
+        Item item = new Item("Item " + id, price(id), 1000, "Category", null);
+        ReflectionTestUtils.setField(item, "id", id);
+        return item;
+    }
+}
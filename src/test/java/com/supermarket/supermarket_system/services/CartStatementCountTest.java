@@ -0,0 +1,100 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Cart;
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.CartRepository;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL statements Hibernate prepares to add a line to a cart, counted with
+ * Hibernate statistics against the configured database: pricing the cart must
+ * not issue more statements as the cart grows, so lazy loads or per-line
+ * lookups below the repository layer show up here.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class CartStatementCountTest {
+
+    private static final String EMAIL_DOMAIN = "@statement-count.test";
+    private static final String CATEGORY = "statement-count-test";
+
+    @Autowired private CartService cartService;
+    @Autowired private ItemService itemService;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        String users = "SELECT id FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM cart_lines WHERE cart_id IN (SELECT id FROM carts WHERE user_id IN (" + users + "))");
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id IN (" + users + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "'");
+        jdbcTemplate.update("DELETE FROM items WHERE category = ?", CATEGORY);
+    }
+
+    @Test
+    void addingALineDoesNotScaleWithCartSize() {
+        long small = statementsToAddALine(10);
+        long large = statementsToAddALine(100);
+
+        assertEquals(small, large, "statements for a 10-line vs a 100-line cart");
+        // The cart, its user, the added item, every cart item in one query, the cart update
+        assertTrue(large <= 5, "statements: " + large);
+    }
+
+    // Adds the last of `lines` items to a cart already holding the others, with a cold item cache
+    private long statementsToAddALine(int lines) {
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            itemIds.add(itemRepository.save(new Item("Item " + i, i + 0.5, 100, CATEGORY, null)).getId());
+        }
+        User user = userRepository.save(new User("Cart " + lines, "cart" + lines + EMAIL_DOMAIN,
+                "secret", "123", "Street", "USER"));
+        Cart cart = new Cart(user);
+        itemIds.subList(0, lines - 1).forEach(itemId -> cart.addItem(itemId, 1));
+        cartRepository.save(cart);
+        itemService.invalidate(itemIds);
+
+        statistics.clear();
+        Cart saved = cartService.addItemToCart(user.getId(), itemIds.get(lines - 1), 2);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(lines, saved.getItems().size());
+        return statements;
+    }
+}
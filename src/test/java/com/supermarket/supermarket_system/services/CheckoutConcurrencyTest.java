@@ -0,0 +1,141 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Cart;
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.CartRepository;
+import com.supermarket.supermarket_system.repositories.InventoryRepository;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent checkouts against the real database (the datasource configured in
+ * application.properties, like the context-load test): many buyers race for one
+ * low-stock item, and the conditional UPDATE in InventoryRepository.reserve must
+ * let exactly as many through as there are units, never taking stock below zero.
+ */
+@SpringBootTest
+class CheckoutConcurrencyTest {
+
+    private static final int BUYERS = 200;
+    private static final int STOCK = 50;
+    private static final String EMAIL_DOMAIN = "@checkout-race.test";
+
+    @Autowired private OrderService orderService;
+    @Autowired private InventoryRepository inventoryRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Long itemId;
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        itemId = itemRepository.save(new Item("Race item", 1.0, STOCK, "Test", null)).getId();
+        for (int i = 0; i < BUYERS; i++) {
+            User user = userRepository.save(new User("Buyer " + i, "buyer" + i + EMAIL_DOMAIN,
+                    "secret", "123", "Street", "USER"));
+            Cart cart = new Cart(user);
+            cart.addItem(itemId, 1);
+            cartRepository.save(cart);
+            userIds.add(user.getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        String users = "SELECT id FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM order_lines WHERE order_id IN (SELECT id FROM orders WHERE user_id IN (" + users + "))");
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id IN (" + users + ")");
+        jdbcTemplate.update("DELETE FROM cart_lines WHERE cart_id IN (SELECT id FROM carts WHERE user_id IN (" + users + "))");
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id IN (" + users + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "'");
+        if (itemId != null) {
+            jdbcTemplate.update("DELETE FROM items WHERE id = ?", itemId);
+        }
+        userIds.clear();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger lowestSeen = new AtomicInteger(Integer.MAX_VALUE);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (Long userId : userIds) {
+                results.add(pool.submit(checkout(userId, start, lowestSeen)));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            int outOfStock = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                } else {
+                    outOfStock++;
+                }
+            }
+
+            assertEquals(STOCK, succeeded);
+            assertEquals(BUYERS - STOCK, outOfStock);
+            assertEquals(0, (int) inventoryRepository.availableQuantity(itemId));
+            assertTrue(lowestSeen.get() >= 0, "stock went negative: " + lowestSeen.get());
+            assertEquals(STOCK, (int) jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders o JOIN users u ON u.id = o.user_id WHERE u.email LIKE ?",
+                    Integer.class, "%" + EMAIL_DOMAIN));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // true if the checkout went through, false if it was refused for lack of stock
+    private Callable<Boolean> checkout(Long userId, CountDownLatch start, AtomicInteger lowestSeen) {
+        return () -> {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+            try {
+                start.await();
+                try {
+                    orderService.createOrderFromCart(userId, "CARD");
+                    return true;
+                } catch (RuntimeException e) {
+                    if (!e.getMessage().startsWith("Insufficient stock")) {
+                        throw e;
+                    }
+                    return false;
+                } finally {
+                    lowestSeen.accumulateAndGet(inventoryRepository.availableQuantity(itemId), Math::min);
+                }
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.supermarket.supermarket_system.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.supermarket_system.models.ItemImportReport;
+import com.supermarket.supermarket_system.repositories.ItemImportRepository;
+import com.supermarket.supermarket_system.repositories.ItemImportRepository.Row;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * CSV splitting, header and row validation, and the per-chunk cache refresh
+ * of bulk item imports.
+ */
+@ExtendWith(MockitoExtension.class)
+class ItemImportServiceTest {
+
+    @Mock private ItemImportRepository importRepository;
+    @Mock private ItemService itemService;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private ItemImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ItemImportService(importRepository, itemService, transactionTemplate,
+                new ObjectMapper(), 2);
+    }
+
+    // ----------------------
+    // CSV SPLITTING
+    // ----------------------
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("1", "Milk", "1.5", ""), ItemImportService.splitCsvLine("1,Milk,1.5,"));
+    }
+
+    @Test
+    void keepsCommasInsideQuotedFields() {
+        assertEquals(List.of("", "Eggs, large", "Dairy"), ItemImportService.splitCsvLine(",\"Eggs, large\",Dairy"));
+    }
+
+    @Test
+    void unescapesDoubledQuotes() {
+        assertEquals(List.of("12\" pizza", ""), ItemImportService.splitCsvLine("\"12\"\" pizza\",\"\""));
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.splitCsvLine("1,\"Milk,2"));
+    }
+
+    // ----------------------
+    // HEADER
+    // ----------------------
+
+    @Test
+    void readsHeaderCaseInsensitivelyAfterByteOrderMark() {
+        assertEquals(List.of("id", "name", "price"), ItemImportService.readHeader("\uFEFFId, NAME ,price"));
+    }
+
+    @Test
+    void rejectsBadHeaders() {
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.readHeader(null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.readHeader("name,colour"));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.readHeader("name,price,Name"));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.readHeader("price,quantity"));
+    }
+
+    @Test
+    void headerErrorFailsTheWholeImport() {
+        assertThrows(IllegalArgumentException.class, () ->
+                importService.importItems(new StringReader("name,colour\nMilk,white\n"), ItemImportService.Format.CSV));
+        verifyNoInteractions(importRepository, itemService, transactionTemplate);
+    }
+
+    // ----------------------
+    // ROW VALIDATION
+    // ----------------------
+
+    @Test
+    void buildsRowFromValidFields() {
+        Row row = ItemImportService.toRow(3, null, "Milk", 1.5, 10, "Dairy", null);
+        assertEquals(new Row(3, null, "Milk", 1.5, 10, "Dairy", null), row);
+    }
+
+    @Test
+    void rejectsInvalidRows() {
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, 0L, "Milk", null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, null, null, 1.0, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, 5L, " ", null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, null, "Milk", -1.0, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, null, "Milk", Double.NaN, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, null, "Milk", null, -3, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, null, "x".repeat(256), null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ItemImportService.toRow(2, 5L, null, null, null, null, null));
+    }
+
+    @Test
+    void reportsBadNumbersAndFieldCountsByLine() throws Exception {
+        String csv = "name,price,quantity\n"
+                + "Milk,abc,1\n"
+                + "Bread,1.0,2.5\n"
+                + "Eggs,1.0\n"
+                + "\"Rice, brown\",2.0,3\n";
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(importRepository.existingIds(anyList())).thenReturn(Set.of());
+        when(importRepository.insertAll(anyList())).thenReturn(List.of(42L));
+
+        ItemImportReport report = importService.importItems(new StringReader(csv), ItemImportService.Format.CSV);
+
+        assertEquals(4, report.getRowsRead());
+        assertEquals(1, report.getInserted());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(2, 3, 4), report.getErrors().stream().map(ItemImportReport.RowError::line).toList());
+        assertTrue(report.getErrors().get(0).message().contains("price"));
+        assertTrue(report.getErrors().get(1).message().contains("quantity"));
+    }
+
+    @Test
+    void jsonRowsKeepMissingFieldsNull() throws Exception {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(importRepository.existingIds(anyList())).thenReturn(Set.of(7L));
+        when(importRepository.updateAll(anyList())).thenAnswer(invocation -> {
+            List<Row> rows = invocation.getArgument(0);
+            Row row = rows.get(0);
+            assertEquals(7L, (long) row.id());
+            assertNull(row.name());
+            assertEquals(4, (int) row.quantity());
+            return new boolean[]{true};
+        });
+
+        ItemImportReport report = importService.importItems(
+                new StringReader("{\"id\":7,\"quantity\":4}\n{\"id\":\"x\"}\n"), ItemImportService.Format.NDJSON);
+
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getFailed());
+    }
+
+    // ----------------------
+    // CACHE REFRESH
+    // ----------------------
+
+    @Test
+    void refreshesCacheAfterEachCommittedChunk() throws Exception {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(importRepository.existingIds(anyList())).thenReturn(Set.of());
+        when(importRepository.insertAll(anyList())).thenReturn(List.of(1L, 2L), List.of(3L));
+
+        importService.importItems(new StringReader("name\nMilk\nBread\nEggs\n"), ItemImportService.Format.CSV);
+
+        InOrder order = inOrder(importRepository, itemService);
+        order.verify(importRepository).insertAll(anyList());
+        order.verify(itemService).refreshWritten(List.of(1L, 2L));
+        order.verify(importRepository).insertAll(anyList());
+        order.verify(itemService).refreshWritten(List.of(3L));
+    }
+}
@@ -0,0 +1,162 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.ItemSummary;
+import com.supermarket.supermarket_system.models.ItemSummaryPage;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.utils.ItemCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cursor paging of filtered listings against the configured database: following
+ * nextCursor must visit every row once, in the same order as a single page,
+ * including items without a price (which MySQL sorts first ascending and last
+ * descending) and runs of equal sort values.
+ */
+@SpringBootTest
+class ItemListingKeysetTest {
+
+    private static final String CATEGORY = "item-listing-keyset-test";
+    private static final Double[] PRICES = {null, 1.0, 1.0, 2.0, null, 3.0, 2.0, null, 1.0};
+    private static final String[] NAMES = {"Kiwi", "Apple", "Fig", "Apple", "Date", "Banana", "Cherry", "Apple", "Elder"};
+
+    @Autowired private ItemService itemService;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        for (int i = 0; i < PRICES.length; i++) {
+            items.add(itemRepository.save(new Item(NAMES[i], PRICES[i], i % 3, CATEGORY, null)));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM items WHERE category = ?", CATEGORY);
+        items.clear();
+    }
+
+    // ----------------------
+    // ORDERING ACROSS PAGES
+    // ----------------------
+
+    @Test
+    void priceAscendingPutsMissingPricesFirst() {
+        List<Long> expected = expectedOrder(Comparator
+                .comparing((Item item) -> item.getPrice(), Comparator.nullsFirst(Comparator.<Double>naturalOrder()))
+                .thenComparing(Item::getId));
+
+        assertEquals(expected, ids(page("price", 100, null).getItems()));
+        for (int size = 1; size <= 4; size++) {
+            assertEquals(expected, followCursors("price", size), "page size " + size);
+        }
+    }
+
+    @Test
+    void priceDescendingPutsMissingPricesLast() {
+        List<Long> expected = expectedOrder(Comparator
+                .comparing((Item item) -> item.getPrice(), Comparator.nullsFirst(Comparator.<Double>naturalOrder()))
+                .thenComparing(Item::getId)
+                .reversed());
+
+        assertEquals(expected, ids(page("price,desc", 100, null).getItems()));
+        for (int size = 1; size <= 4; size++) {
+            assertEquals(expected, followCursors("price,desc", size), "page size " + size);
+        }
+    }
+
+    @Test
+    void nameAndIdOrdersBreakTiesById() {
+        Comparator<Item> byName = Comparator.comparing(Item::getName).thenComparing(Item::getId);
+        Comparator<Item> byId = Comparator.comparing(Item::getId);
+
+        for (int size = 1; size <= 3; size++) {
+            assertEquals(expectedOrder(byName), followCursors("name", size));
+            assertEquals(expectedOrder(byName.reversed()), followCursors("name,desc", size));
+            assertEquals(expectedOrder(byId), followCursors("id", size));
+            assertEquals(expectedOrder(byId.reversed()), followCursors("id,desc", size));
+        }
+    }
+
+    @Test
+    void cursorOnAMissingPriceEncodesNoValue() {
+        ItemSummaryPage first = page("price", 1, null);
+
+        ItemCursor cursor = ItemCursor.decode(first.getNextCursor());
+        assertEquals("PRICE", cursor.getSort());
+        assertNull(cursor.getValue());
+        assertEquals(items.get(0).getId(), cursor.getId());
+    }
+
+    @Test
+    void rowsAddedBeforeTheCursorDoNotShiftLaterPages() {
+        // 3.0, then the two 2.0s
+        ItemSummaryPage first = page("price,desc", 3, null);
+
+        // Sorts before everything already listed; an offset-based next page would repeat a 2.0
+        items.add(itemRepository.save(new Item("Zucchini", 9.0, 1, CATEGORY, null)));
+        ItemSummaryPage second = page("price,desc", 3, first.getNextCursor());
+
+        List<Long> seen = new ArrayList<>(ids(first.getItems()));
+        seen.addAll(ids(second.getItems()));
+        assertEquals(seen.stream().distinct().count(), seen.size());
+        // The highest-id 1.0 comes right after the last 2.0
+        assertEquals(items.get(8).getId(), second.getItems().get(0).getId());
+    }
+
+    // ----------------------
+    // INVALID CURSORS
+    // ----------------------
+
+    @Test
+    void rejectsCursorsThatDoNotFitTheListing() {
+        String priceCursor = page("price", 2, null).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> page("name", 2, priceCursor));
+        assertThrows(IllegalArgumentException.class, () -> page("price", 2, "%%%"));
+        assertThrows(IllegalArgumentException.class,
+                () -> page("price", 2, new ItemCursor("PRICE", "cheap", 5L).encode()));
+        assertThrows(IllegalArgumentException.class,
+                () -> page("price", 2, new ItemCursor("WEIGHT", "1", 5L).encode()));
+    }
+
+    private ItemSummaryPage page(String sort, int size, String cursor) {
+        return itemService.findSummaries(CATEGORY, null, null, false, sort, cursor, 0, size);
+    }
+
+    private List<Long> followCursors(String sort, int size) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ItemSummaryPage page = page(sort, size, cursor);
+            seen.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null && seen.size() <= items.size());
+        return seen;
+    }
+
+    private List<Long> expectedOrder(Comparator<Item> order) {
+        return items.stream().sorted(order).map(Item::getId).toList();
+    }
+
+    private static List<Long> ids(List<ItemSummary> rows) {
+        return rows.stream().map(ItemSummary::getId).toList();
+    }
+}
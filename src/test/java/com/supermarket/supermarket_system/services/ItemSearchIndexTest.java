@@ -0,0 +1,241 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Matching, ranking, facets, and the put/remove/load interleavings of the
+ * in-memory item search index, including dead-document compaction.
+ */
+class ItemSearchIndexTest {
+
+    private final ItemSearchIndex index = new ItemSearchIndex();
+
+    // ----------------------
+    // MATCHING
+    // ----------------------
+
+    @Test
+    void tokenizesLowerCaseOnLettersAndDigits() {
+        assertEquals(List.of("semi", "skimmed", "milk", "2l"), ItemSearchIndex.tokenize("Semi-skimmed MILK (2L)"));
+        assertEquals(List.of(), ItemSearchIndex.tokenize(null));
+        assertEquals(List.of(), ItemSearchIndex.tokenize(" -- "));
+    }
+
+    @Test
+    void everyTokenMustMatchAndOnlyTheLastAsPrefix() {
+        index.put(item(1, 0, "Whole milk", 1.0, "Dairy", null));
+        index.put(item(2, 0, "Whole wheat bread", 2.0, "Bakery", null));
+
+        assertEquals(List.of(1L), ids("whole mil"));
+        assertEquals(List.of(1L, 2L), ids("whole"));
+        assertEquals(List.of(1L, 2L), ids("wh"));
+        assertEquals(List.of(), ids("who milk"));
+        assertEquals(List.of(), ids("whole milky"));
+    }
+
+    @Test
+    void matchesDescriptionAndCategoryToo() {
+        index.put(item(1, 0, "Cheddar", 3.0, "Dairy", "Aged twelve months"));
+
+        assertEquals(List.of(1L), ids("aged"));
+        assertEquals(List.of(1L), ids("dairy"));
+        assertEquals(List.of(1L), ids("  "));
+    }
+
+    // ----------------------
+    // RANKING
+    // ----------------------
+
+    @Test
+    void ranksByNameHitsThenIndexOrder() {
+        index.put(item(1, 0, "Chocolate bar", 1.0, "Sweets", "Made with milk"));
+        index.put(item(2, 0, "Milk chocolate", 1.0, "Sweets", null));
+        index.put(item(3, 0, "Biscuits", 1.0, "Sweets", "Milk chocolate coating"));
+        index.put(item(4, 0, "Chocolate milk", 1.0, "Dairy", null));
+
+        // Two name hits (2, 4), then one (1), then none (3)
+        assertEquals(List.of(2L, 4L, 1L, 3L), ids("milk choc"));
+    }
+
+    @Test
+    void pagesAcrossScoreGroups() {
+        index.put(item(1, 0, "Bread", 1.0, "Bakery", "Tea bread"));
+        index.put(item(2, 0, "Tea", 1.0, "Drinks", null));
+        index.put(item(3, 0, "Cups", 1.0, "Home", "For tea"));
+        index.put(item(4, 0, "Green tea", 1.0, "Drinks", null));
+
+        ItemSearchIndex.Result page = index.search("tea", null, null, null, 1, 2);
+
+        assertEquals(List.of(4L, 1L), page.itemIds());
+        assertEquals(4, page.total());
+    }
+
+    // ----------------------
+    // FILTERS AND FACETS
+    // ----------------------
+
+    @Test
+    void categoryFacetsIgnoreTheCategoryFilter() {
+        index.put(item(1, 0, "Milk", 1.0, "Dairy", null));
+        index.put(item(2, 0, "Oat milk", 2.0, "Vegan", null));
+        index.put(item(3, 0, "Milk powder", 3.0, "Dairy", null));
+        index.put(item(4, 0, "Milk jug", 4.0, null, null));
+
+        ItemSearchIndex.Result result = index.search("milk", "dairy", null, null, 0, 10);
+
+        assertEquals(List.of(1L, 3L), result.itemIds());
+        assertEquals(2, result.total());
+        assertEquals(Map.of("Dairy", 2, "Vegan", 1), result.categories());
+    }
+
+    @Test
+    void priceRangeIsInclusiveAndNarrowsFacets() {
+        index.put(item(1, 0, "Milk", 1.0, "Dairy", null));
+        index.put(item(2, 0, "Oat milk", 2.0, "Vegan", null));
+        index.put(item(3, 0, "Milk powder", 3.0, "Dairy", null));
+        index.put(item(4, 0, "Milk sample", null, "Dairy", null));
+
+        ItemSearchIndex.Result result = index.search("milk", null, 2.0, 3.0, 0, 10);
+
+        assertEquals(List.of(2L, 3L), result.itemIds());
+        assertEquals(Map.of("Dairy", 1, "Vegan", 1), result.categories());
+        // Unpriced items only match when no price bound is given
+        assertEquals(4, index.search("milk", null, null, null, 0, 10).total());
+    }
+
+    // ----------------------
+    // WRITES
+    // ----------------------
+
+    @Test
+    void putReplacesTheEarlierVersion() {
+        index.put(item(1, 0, "Butter", 2.0, "Dairy", null));
+        index.put(item(1, 1, "Margarine", 2.0, "Spreads", null));
+
+        assertEquals(List.of(), ids("butter"));
+        assertEquals(List.of(1L), ids("margarine"));
+        assertEquals(Map.of("Spreads", 1), index.search("", null, null, null, 0, 10).categories());
+        assertEquals(1, index.stats().get("items"));
+        assertEquals(1, index.stats().get("deadDocuments"));
+    }
+
+    @Test
+    void removeHidesTheItem() {
+        index.put(item(1, 0, "Butter", 2.0, "Dairy", null));
+        index.put(item(2, 0, "Peanut butter", 3.0, "Spreads", null));
+
+        index.remove(1L);
+        index.remove(99L);
+
+        assertEquals(List.of(2L), ids("butter"));
+        assertEquals(1, index.stats().get("items"));
+    }
+
+    // ----------------------
+    // INITIAL LOAD
+    // ----------------------
+
+    @Test
+    void loadSkipsItemsALiveWriteAlreadyIndexedAtTheSameOrNewerVersion() {
+        index.beginLoad();
+        index.put(item(1, 3, "Fresh name", 1.0, "Dairy", null));
+        index.put(item(2, 1, "Live copy", 1.0, "Dairy", null));
+        index.load(List.of(
+                item(1, 2, "Stale name", 1.0, "Dairy", null),
+                item(2, 1, "Loaded copy", 1.0, "Dairy", null),
+                item(3, 0, "Only loaded", 1.0, "Dairy", null)));
+        index.endLoad();
+
+        assertEquals(List.of(1L), ids("fresh"));
+        assertEquals(List.of(), ids("stale"));
+        assertEquals(List.of(2L), ids("live"));
+        assertEquals(List.of(), ids("loaded copy"));
+        assertEquals(List.of(3L), ids("only"));
+    }
+
+    @Test
+    void loadReplacesOlderLiveVersions() {
+        index.beginLoad();
+        index.put(item(1, 1, "Old name", 1.0, "Dairy", null));
+        index.load(List.of(item(1, 2, "New name", 1.0, "Dairy", null)));
+        index.endLoad();
+
+        assertEquals(List.of(1L), ids("new"));
+        assertEquals(List.of(), ids("old"));
+    }
+
+    @Test
+    void loadDoesNotResurrectItemsDeletedWhileItRan() {
+        index.beginLoad();
+        index.put(item(1, 0, "Yogurt", 1.0, "Dairy", null));
+        index.remove(1L);
+        index.remove(2L);
+        index.load(List.of(
+                item(1, 0, "Yogurt", 1.0, "Dairy", null),
+                item(2, 0, "Kefir", 1.0, "Dairy", null)));
+        index.endLoad();
+
+        assertEquals(List.of(), ids("yogurt"));
+        assertEquals(List.of(), ids("kefir"));
+
+        // Once the load has ended, the item can be created again
+        index.put(item(2, 1, "Kefir", 1.0, "Dairy", null));
+        assertEquals(List.of(2L), ids("kefir"));
+    }
+
+    // ----------------------
+    // COMPACTION
+    // ----------------------
+
+    @Test
+    void compactionDropsDeadDocumentsAndKeepsQueriesIntact() {
+        int items = 2000;
+        for (long id = 1; id <= items; id++) {
+            index.put(item(id, 0, "Product " + id, (double) id, id % 2 == 0 ? "Even" : "Odd", null));
+        }
+        // 1024 dead documents out of 3024 crosses both compaction thresholds
+        for (long id = 1; id <= 1024; id++) {
+            index.put(item(id, 1, "Renamed " + id, (double) id, id % 2 == 0 ? "Even" : "Odd", null));
+        }
+
+        assertEquals(0, index.stats().get("deadDocuments"));
+        assertEquals(items, index.stats().get("items"));
+
+        ItemSearchIndex.Result renamed = index.search("renamed", null, null, null, 0, items);
+        assertEquals(1024, renamed.total());
+        assertEquals(1L, renamed.itemIds().get(0));
+        assertEquals(Map.of("Even", 512, "Odd", 512), renamed.categories());
+        assertEquals(items - 1024, index.search("product", null, null, null, 0, items).total());
+        assertEquals(List.of(1025L), ids("1025 product"));
+        assertEquals(List.of(7L), ids("7 renamed"));
+        assertEquals(List.of(), ids("7 product"));
+
+        // Document numbers were remapped; writes and price filters must still find the right rows
+        index.remove(7L);
+        index.put(item(1025, 1, "Moved", 1025.0, "Odd", null));
+        assertEquals(List.of(), ids("7 renamed"));
+        assertEquals(List.of(1025L), ids("moved"));
+        assertEquals(List.of(1025L, 1026L),
+                index.search("", null, 1025.0, 1026.0, 0, 10).itemIds().stream().sorted().toList());
+        assertTrue((int) index.stats().get("terms") > 0);
+    }
+
+    private List<Long> ids(String text) {
+        return index.search(text, null, null, null, 0, 100).itemIds();
+    }
+
+    private static Item item(long id, long version, String name, Double price, String category, String description) {
+        Item item = new Item(name, price, 1, category, description);
+        ReflectionTestUtils.setField(item, "id", id);
+        ReflectionTestUtils.setField(item, "version", version);
+        return item;
+    }
+}
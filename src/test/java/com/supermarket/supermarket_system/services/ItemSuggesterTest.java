@@ -0,0 +1,216 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.ItemSuggestion;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prefix matching and sales ranking of the suggester, the overlay that makes
+ * writes visible before a rebuild, and how sales are carried across rebuilds
+ * and reloads.
+ */
+class ItemSuggesterTest {
+
+    private final ItemSuggester suggester = new ItemSuggester();
+
+    // ----------------------
+    // MATCHING AND RANKING
+    // ----------------------
+
+    @Test
+    void ranksMatchesByUnitsSold() {
+        suggester.addSales(Map.of(1L, 5L, 2L, 50L, 3L, 20L));
+        loadCatalog(item(1, "Dark chocolate"), item(2, "Chocolate milk"), item(3, "Hot chocolate"),
+                item(4, "Chocolate cake"), item(5, "Vanilla ice cream"));
+
+        List<ItemSuggestion> suggestions = suggester.suggest("choc", 10);
+
+        assertEquals(List.of(2L, 3L, 1L, 4L), ids(suggestions));
+        assertEquals(List.of(50L, 20L, 5L, 0L), suggestions.stream().map(ItemSuggestion::getPopularity).toList());
+        assertEquals("Chocolate milk", suggestions.get(0).getName());
+    }
+
+    @Test
+    void matchesPrefixesOfAnyWordIgnoringCase() {
+        loadCatalog(item(1, "Dark Chocolate"), item(2, "Choco-pie"), item(3, "Hot cocoa"));
+
+        assertEquals(Set.of(1L, 2L), Set.copyOf(ids(suggester.suggest("  CHOC ", 10))));
+        assertEquals(List.of(2L), ids(suggester.suggest("pie", 10)));
+        assertEquals(List.of(1L), ids(suggester.suggest("dark ch", 10)));
+        assertEquals(List.of(), ids(suggester.suggest("ocolate", 10)));
+        assertEquals(List.of(), ids(suggester.suggest("chocolates", 10)));
+        assertEquals(List.of(), suggester.suggest(" ", 10));
+        assertEquals(List.of(), suggester.suggest(null, 10));
+        assertEquals(List.of(), suggester.suggest("choc", 0));
+    }
+
+    @Test
+    void itemMatchingOnSeveralWordsIsSuggestedOnce() {
+        loadCatalog(item(1, "Tea cake tea"), item(2, "Green tea"));
+
+        assertEquals(Set.of(1L, 2L), Set.copyOf(ids(suggester.suggest("tea", 10))));
+    }
+
+    @Test
+    void limitKeepsTheMostSoldOfManyMatches() {
+        List<Item> items = new ArrayList<>();
+        Map<Long, Long> sales = new HashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            items.add(item(id, "Tea blend " + id));
+            sales.put(id, id);
+        }
+        suggester.addSales(sales);
+        loadCatalog(items.toArray(Item[]::new));
+
+        assertEquals(LongStream.rangeClosed(81, 100).map(id -> 181 - id).boxed().toList(),
+                ids(suggester.suggest("tea", 20)));
+        assertEquals(List.of(100L), ids(suggester.suggest("blend", 1)));
+    }
+
+    // ----------------------
+    // WRITES
+    // ----------------------
+
+    @Test
+    void writesShowBeforeTheNextRebuild() {
+        suggester.addSales(Map.of(1L, 10L));
+        loadCatalog(item(1, "Apple"));
+
+        suggester.put(item(2, "Apricot"));
+        assertEquals(List.of(1L, 2L), ids(suggester.suggest("ap", 10)));
+
+        // A renamed item keeps its sales and stops matching its old name
+        suggester.put(item(1, "Banana"));
+        assertEquals(List.of(2L), ids(suggester.suggest("ap", 10)));
+        assertEquals(10L, suggester.suggest("ban", 10).get(0).getPopularity());
+
+        suggester.remove(2L);
+        assertEquals(List.of(), ids(suggester.suggest("ap", 10)));
+
+        suggester.rebuildIfChanged();
+        assertEquals(0, suggester.stats().get("overlay"));
+        assertEquals(List.of(), ids(suggester.suggest("ap", 10)));
+        assertEquals(List.of(1L), ids(suggester.suggest("ban", 10)));
+        assertEquals(10L, suggester.suggest("ban", 10).get(0).getPopularity());
+    }
+
+    @Test
+    void salesCountFromTheNextRebuild() {
+        loadCatalog(item(1, "Apple juice"), item(2, "Apple pie"));
+
+        suggester.addSales(Map.of(2L, 5L));
+        assertEquals(List.of(1L, 2L), ids(suggester.suggest("apple", 10)));
+
+        suggester.rebuildIfChanged();
+        assertEquals(List.of(2L, 1L), ids(suggester.suggest("apple", 10)));
+        assertEquals(5L, suggester.suggest("apple", 10).get(0).getPopularity());
+    }
+
+    @Test
+    void unmatchedSalesAreKeptUntilTheItemAppears() {
+        loadCatalog(item(1, "Milk"));
+
+        suggester.addSales(Map.of(99L, 7L));
+        suggester.rebuildIfChanged();
+        assertEquals(1, suggester.stats().get("unmatchedSalesItems"));
+
+        // Created after the last load: not in the snapshot yet, so no sales counted
+        suggester.put(item(99, "Milkshake"));
+        assertEquals(0L, suggester.suggest("milksh", 10).get(0).getPopularity());
+
+        suggester.rebuildIfChanged();
+        assertEquals(List.of(99L, 1L), ids(suggester.suggest("milk", 10)));
+        assertEquals(7L, suggester.suggest("milk", 10).get(0).getPopularity());
+        assertEquals(0, suggester.stats().get("unmatchedSalesItems"));
+    }
+
+    @Test
+    void unmatchedSalesAreFoldedInByAReload() {
+        loadCatalog(item(1, "Milk"));
+        suggester.addSales(Map.of(98L, 3L));
+        suggester.rebuildIfChanged();
+
+        loadCatalog(item(1, "Milk"), item(98, "Milk chocolate"));
+
+        assertEquals(List.of(98L, 1L), ids(suggester.suggest("milk", 10)));
+        assertEquals(3L, suggester.suggest("milk", 10).get(0).getPopularity());
+        assertEquals(0, suggester.stats().get("unmatchedSalesItems"));
+    }
+
+    @Test
+    void salesOfDeletedItemsAreDropped() {
+        loadCatalog(item(1, "Milk"), item(2, "Bread"));
+
+        suggester.remove(1L);
+        suggester.addSales(Map.of(1L, 4L));
+        suggester.rebuildIfChanged();
+
+        assertEquals(0, suggester.stats().get("unmatchedSalesItems"));
+        assertEquals(1, suggester.stats().get("items"));
+    }
+
+    // ----------------------
+    // LOADING
+    // ----------------------
+
+    @Test
+    void reloadKeepsSalesAlreadyCounted() {
+        suggester.addSales(Map.of(1L, 5L));
+        loadCatalog(item(1, "Butter"));
+
+        loadCatalog(item(1, "Salted butter"));
+
+        assertEquals(5L, suggester.suggest("salted", 10).get(0).getPopularity());
+    }
+
+    @Test
+    void abortedLoadKeepsTheCurrentSnapshot() {
+        loadCatalog(item(1, "Butter"));
+
+        suggester.beginLoad();
+        suggester.load(List.of(item(2, "Bread")));
+        suggester.abortLoad();
+
+        assertEquals(List.of(1L), ids(suggester.suggest("b", 10)));
+    }
+
+    @Test
+    void writesDuringALoadTakePrecedenceOverIt() {
+        suggester.beginLoad();
+        suggester.load(List.of(item(1, "Old name")));
+        suggester.put(item(1, "New name"));
+        // A rebuild while loading would be replaced by the load, so it waits
+        suggester.rebuildIfChanged();
+        assertEquals(0L, suggester.stats().get("rebuilds"));
+        suggester.endLoad();
+
+        assertEquals(List.of(1L), ids(suggester.suggest("new", 10)));
+        assertEquals(List.of(), ids(suggester.suggest("old", 10)));
+    }
+
+    private void loadCatalog(Item... items) {
+        suggester.beginLoad();
+        suggester.load(List.of(items));
+        suggester.endLoad();
+    }
+
+    private static List<Long> ids(List<ItemSuggestion> suggestions) {
+        return suggestions.stream().map(ItemSuggestion::getId).toList();
+    }
+
+    private static Item item(long id, String name) {
+        Item item = new Item(name, 1.0, 1, null, null);
+        ReflectionTestUtils.setField(item, "id", id);
+        return item;
+    }
+}
@@ -0,0 +1,224 @@
+package com.supermarket.supermarket_system.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.supermarket_system.models.Cart;
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.Order;
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.CartRepository;
+import com.supermarket.supermarket_system.repositories.InventoryRepository;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.OrderRepository;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import com.supermarket.supermarket_system.security.UserAccessValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Repository calls for order item details (every item referenced by a list of
+ * orders is loaded with one findAllById on the mocked repository; the SQL itself
+ * is counted by OrderStatementCountTest), and the stock reservation paths of
+ * checkout: nothing is persisted after a failed reservation, and a failed order
+ * in a checkout batch gives back the stock it did get.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    private static final long USER_ID = 7L;
+
+    @Mock private OrderRepository orderRepository;
+    @Mock private ItemRepository itemRepository;
+    @Mock private OptimisticRetry optimisticRetry;
+    @Mock private UserAccessValidator accessValidator;
+    @Mock private UserRepository userRepository;
+    @Mock private CartRepository cartRepository;
+    @Mock private InventoryRepository inventoryRepository;
+    @Mock private LineItemStore lineItems;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    // Items the catalog lookup pretends no longer exist
+    private final Set<Long> deletedItems = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        ItemService itemService = new ItemService(itemRepository, lineItems, optimisticRetry,
+                new ObjectMapper(), 1000);
+        ReflectionTestUtils.setField(orderService, "itemService", itemService);
+
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                if (!deletedItems.contains(id)) {
+                    found.add(item((Long) id));
+                }
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void userOrdersWithAHundredLinesLoadItemsWithOneBulkLookup() {
+        // 100 orders, each with 10 lines drawn from 100 distinct items
+        List<Order> orders = new ArrayList<>();
+        User user = new User("Test", "test@example.com", "secret", "123", "Street", "USER");
+        for (int o = 0; o < 100; o++) {
+            Map<Long, Integer> lines = new HashMap<>();
+            for (int l = 0; l < 10; l++) {
+                lines.put((long) ((o * 10 + l) % 100 + 1), l + 1);
+            }
+            orders.add(new Order(user, lines));
+        }
+        when(orderRepository.findByUserIdOrderByOrderDateDesc(USER_ID)).thenReturn(orders);
+
+        List<Order> result = orderService.getUserOrders(USER_ID);
+
+        verify(itemRepository, times(1)).findAllById(anyIterable());
+        for (Order order : result) {
+            assertEquals(order.getItems().size(), order.getItemDetails().size());
+        }
+    }
+
+    @Test
+    void singleOrderWithAHundredLinesLoadsItemsWithOneBulkLookup() {
+        Map<Long, Integer> lines = new HashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            lines.put(id, 2);
+        }
+        Order order = new Order(new User("Test", "test@example.com", "secret", "123", "Street", "USER"), lines);
+        when(orderRepository.findByUserIdOrderByOrderDateDesc(USER_ID)).thenReturn(List.of(order));
+
+        Order result = orderService.getUserOrders(USER_ID).get(0);
+
+        verify(itemRepository, times(1)).findAllById(anyIterable());
+        assertEquals(100, result.getItemDetails().size());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> details = (Map<String, Object>) result.getItemDetails().get("Item 42");
+        assertEquals(42.5 * 2, (Double) details.get("subtotal"), 1e-9);
+    }
+
+    @Test
+    void checkoutReservesEveryLineInOneSortedBatch() {
+        Cart cart = cartWith(Map.of(3L, 1, 1L, 2, 2L, 4));
+        when(inventoryRepository.reserve(any(), any())).thenReturn(new boolean[]{true, true, true});
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order order = orderService.createOrderFromCart(USER_ID, "CARD");
+
+        verify(inventoryRepository).reserve(aryEq(new long[]{1, 2, 3}), aryEq(new int[]{2, 4, 1}));
+        assertEquals(Map.of(3L, 1, 1L, 2, 2L, 4), new HashMap<>(order.getItems()));
+        assertTrue(cart.getItems().isEmpty());
+        verify(cartRepository).save(cart);
+    }
+
+    @Test
+    void insufficientStockFailsCheckoutBeforeAnythingIsSaved() {
+        Cart cart = cartWith(Map.of(1L, 2, 2L, 5, 3L, 1));
+        when(inventoryRepository.reserve(any(), any())).thenReturn(new boolean[]{true, false, true});
+        when(inventoryRepository.availableQuantity(2L)).thenReturn(3);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> orderService.createOrderFromCart(USER_ID, "CARD"));
+
+        // Thrown out of the @Transactional method, so the reserved lines 1 and 3 roll back
+        assertEquals("Insufficient stock for item: Item 2. Available: 3, Requested: 5", e.getMessage());
+        verify(orderRepository, never()).save(any());
+        verify(lineItems, never()).saveOrderLines(any(), any());
+        verify(cartRepository, never()).save(any());
+        assertEquals(3, cart.getItems().size());
+    }
+
+    @Test
+    void itemDeletedDuringReservationFailsCheckout() {
+        cartWith(Map.of(1L, 1, 2L, 1));
+        when(inventoryRepository.reserve(any(), any())).thenReturn(new boolean[]{false, true});
+        when(inventoryRepository.availableQuantity(1L)).thenReturn(null);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> orderService.createOrderFromCart(USER_ID, "CARD"));
+
+        assertEquals("Item not found with id: 1", e.getMessage());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void unknownItemFailsCheckoutWithoutTouchingStock() {
+        cartWith(Map.of(1L, 1, 2L, 1));
+        deletedItems.add(2L);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> orderService.createOrderFromCart(USER_ID, "CARD"));
+
+        assertEquals("Item not found with id: 2", e.getMessage());
+        verify(inventoryRepository, never()).reserve(any(), any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void failedOrderInACheckoutBatchGivesBackWhatItReserved() {
+        Order filled = pendingOrder(10L, Map.of(1L, 2, 2L, 1));
+        Order unfilled = pendingOrder(11L, Map.of(2L, 5, 3L, 1));
+        when(orderRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(filled, unfilled));
+        // Lines in (itemId, order) order: 1/10, 2/10, 2/11, 3/11; item 2 runs out for order 11
+        when(inventoryRepository.reserve(any(), any())).thenReturn(new boolean[]{true, true, false, true});
+
+        Map<Long, String> failures = orderService.completePendingOrders(List.of(10L, 11L));
+
+        verify(inventoryRepository).reserve(aryEq(new long[]{1, 2, 2, 3}), aryEq(new int[]{2, 1, 5, 1}));
+        verify(inventoryRepository).restock(aryEq(new long[]{3}), aryEq(new int[]{1}));
+        assertEquals(List.of(11L), List.copyOf(failures.keySet()));
+        assertEquals("SHIPPING", filled.getStatus());
+        assertEquals("FAILED", unfilled.getStatus());
+        verify(lineItems).saveOrderLines(same(filled), any());
+        verify(lineItems, never()).saveOrderLines(same(unfilled), any());
+    }
+
+    private Cart cartWith(Map<Long, Integer> lines) {
+        User user = new User("Test", "test@example.com", "secret", "123", "Street", "USER");
+        Cart cart = new Cart(user);
+        lines.forEach(cart::addItem);
+        when(userRepository.findById(Long.valueOf(USER_ID))).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        when(lineItems.withLines(cart)).thenReturn(cart);
+        return cart;
+    }
+
+    private static Order pendingOrder(long id, Map<Long, Integer> lines) {
+        Order order = new Order(new User("Test", "test@example.com", "secret", "123", "Street", "USER"), lines);
+        order.setStatus("PENDING");
+        ReflectionTestUtils.setField(order, "id", id);
+        return order;
+    }
+
+    private static Item item(long id) {
+        Item item = new Item("Item " + id, id + 0.5, 1000, "Category", null);
+        ReflectionTestUtils.setField(item, "id", id);
+        return item;
+    }
+}
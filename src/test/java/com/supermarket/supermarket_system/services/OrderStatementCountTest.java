@@ -0,0 +1,110 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.Order;
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.OrderRepository;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL statements Hibernate prepares to list a user's orders with item details,
+ * counted with Hibernate statistics against the configured database: the count
+ * must not grow with the number of orders or lines.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class OrderStatementCountTest {
+
+    private static final String EMAIL_DOMAIN = "@order-statement-count.test";
+    private static final String CATEGORY = "order-statement-count-test";
+    private static final int ITEMS = 100;
+    private static final int LINES_PER_ORDER = 10;
+
+    @Autowired private OrderService orderService;
+    @Autowired private ItemService itemService;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds.add(itemRepository.save(new Item("Item " + i, i + 0.5, 100, CATEGORY, null)).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        String users = "SELECT id FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM order_lines WHERE order_id IN (SELECT id FROM orders WHERE user_id IN (" + users + "))");
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id IN (" + users + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "'");
+        jdbcTemplate.update("DELETE FROM items WHERE category = ?", CATEGORY);
+    }
+
+    @Test
+    void listingOrdersDoesNotScaleWithOrderCount() {
+        long few = statementsToListOrders(10);
+        long many = statementsToListOrders(100);
+
+        assertEquals(few, many, "statements for 10 vs 100 orders");
+        // The orders, their user, then every referenced item in one query
+        assertTrue(many <= 3, "statements: " + many);
+    }
+
+    // Lists `orders` orders of LINES_PER_ORDER lines each, drawn from all ITEMS items, with a cold item cache
+    private long statementsToListOrders(int orders) {
+        User user = userRepository.save(new User("Orders " + orders, "orders" + orders + EMAIL_DOMAIN,
+                "secret", "123", "Street", "USER"));
+        for (int o = 0; o < orders; o++) {
+            Map<Long, Integer> lines = new HashMap<>();
+            for (int l = 0; l < LINES_PER_ORDER; l++) {
+                lines.put(itemIds.get((o * LINES_PER_ORDER + l) % ITEMS), l + 1);
+            }
+            Order order = new Order(user, lines);
+            order.setPaymentmethod("CARD");
+            orderRepository.save(order);
+        }
+        itemService.invalidate(itemIds);
+
+        statistics.clear();
+        List<Order> result = orderService.getUserOrders(user.getId());
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(orders, result.size());
+        result.forEach(order -> assertEquals(LINES_PER_ORDER, order.getItemDetails().size()));
+        return statements;
+    }
+}
@@ -0,0 +1,98 @@
+package com.supermarket.supermarket_system.services;
+
+import com.supermarket.supermarket_system.models.Item;
+import com.supermarket.supermarket_system.models.ItemSuggestion;
+import com.supermarket.supermarket_system.models.User;
+import com.supermarket.supermarket_system.repositories.ItemRepository;
+import com.supermarket.supermarket_system.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Suggestion ranking seeded at startup from units sold, read from the
+ * orders.items column when line items are not relational. Runs against the
+ * configured database; orders are inserted directly so the scan spans more
+ * than one page.
+ */
+@SpringBootTest(properties = "supermarket.line-items.relational=false")
+class SuggestionSeedingTest {
+
+    private static final String EMAIL = "seed@suggestion-seeding.test";
+    private static final String CATEGORY = "suggestion-seeding-test";
+    // One more than LineItemStore reads per page
+    private static final int SHIPPED_ORDERS = 1001;
+
+    @Autowired private LineItemStore lineItemStore;
+    @Autowired private ItemService itemService;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private long tea;
+    private long jam;
+    private long soap;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        tea = itemRepository.save(new Item("Zephyrine tea", 2.0, 10, CATEGORY, null)).getId();
+        jam = itemRepository.save(new Item("Zephyrine jam", 3.0, 10, CATEGORY, null)).getId();
+        soap = itemRepository.save(new Item("Zephyrine soap", 1.0, 10, CATEGORY, null)).getId();
+        long userId = userRepository.save(new User("Seed", EMAIL, "secret", "123", "Street", "USER")).getId();
+
+        List<Object[]> orders = new ArrayList<>();
+        for (int i = 0; i < SHIPPED_ORDERS; i++) {
+            orders.add(order("{\"" + tea + "\":1}", "SHIPPING", userId));
+        }
+        orders.add(order("{\"" + jam + "\":3,\"" + tea + "\":2}", "COMPLETED", userId));
+        // Never took stock, so never sold
+        orders.add(order("{\"" + soap + "\":500}", "PENDING", userId));
+        orders.add(order("{\"" + soap + "\":500}", "FAILED", userId));
+        jdbcTemplate.batchUpdate("INSERT INTO orders (items, order_date, paymentmethod, status, version, user_id) "
+                + "VALUES (?, NOW(6), 'CARD', ?, 0, ?)", orders);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id IN (SELECT id FROM users WHERE email = ?)", EMAIL);
+        jdbcTemplate.update("DELETE FROM users WHERE email = ?", EMAIL);
+        jdbcTemplate.update("DELETE FROM items WHERE category = ?", CATEGORY);
+    }
+
+    @Test
+    void unitsSoldAreSummedFromTheItemsColumnAcrossPages() {
+        Map<Long, Long> sold = lineItemStore.unitsSoldByItem();
+
+        assertEquals(SHIPPED_ORDERS + 2L, sold.get(tea));
+        assertEquals(3L, sold.get(jam));
+        assertFalse(sold.containsKey(soap));
+    }
+
+    @Test
+    void suggestionsAreRankedByTheSeededSales() {
+        // What runs at startup: seed sales, then load the catalog
+        itemService.buildSearchIndex();
+
+        List<ItemSuggestion> suggestions = itemService.suggest("zephyrine", 10);
+
+        assertEquals(List.of(tea, jam, soap), suggestions.stream().map(ItemSuggestion::getId).toList());
+        assertEquals(List.of(SHIPPED_ORDERS + 2L, 3L, 0L),
+                suggestions.stream().map(ItemSuggestion::getPopularity).toList());
+    }
+
+    private static Object[] order(String itemsJson, String status, long userId) {
+        return new Object[]{itemsJson.getBytes(StandardCharsets.UTF_8), status, userId};
+    }
+}
@@ -0,0 +1,89 @@
+package com.supermarket.supermarket_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Encoding and decoding of listing cursors, and rejection of tokens that were
+ * not produced by {@link ItemCursor#encode()}.
+ */
+class ItemCursorTest {
+
+    @Test
+    void roundTripsSortValueAndId() {
+        ItemCursor cursor = ItemCursor.decode(new ItemCursor("PRICE", "2.5", 42L).encode());
+
+        assertEquals("PRICE", cursor.getSort());
+        assertEquals("2.5", cursor.getValue());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void roundTripsMissingAndEmptyValues() {
+        ItemCursor none = ItemCursor.decode(new ItemCursor("PRICE", null, 7L).encode());
+        ItemCursor empty = ItemCursor.decode(new ItemCursor("NAME", "", 8L).encode());
+
+        assertNull(none.getValue());
+        assertEquals("", empty.getValue());
+        assertEquals(8L, empty.getId());
+    }
+
+    @Test
+    void roundTripsValuesContainingSeparatorsAndNonAscii() {
+        String name = "Tea | Coffee =|= Café 12\" ☕";
+        ItemCursor cursor = ItemCursor.decode(new ItemCursor("NAME", name, 3L).encode());
+
+        assertEquals(name, cursor.getValue());
+        assertEquals(3L, cursor.getId());
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new ItemCursor("NAME", "??>>~~ +/ Ünïcode", Long.MAX_VALUE).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        for (String token : new String[]{
+                "",
+                "not base64!",
+                "abc+/",            // standard, not URL-safe, alphabet
+                raw("PRICE"),       // no separators
+                raw("PRICE|12"),    // one separator
+                raw("|=1.0|12"),    // no sort
+                raw("PRICE|1.0|12"),  // value without its marker
+                raw("PRICE|=1.0|"),   // no id
+                raw("PRICE|=1.0|12x"),
+                raw("PRICE|=1.0|99999999999999999999"),
+        }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> ItemCursor.decode(token), token);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    @Test
+    void editedTokenDecodesOnlyWhenStillWellFormed() {
+        String token = new ItemCursor("PRICE", "2.5", 42L).encode();
+
+        // Cursors are opaque, not signed: a well-formed edit decodes to another position
+        ItemCursor moved = ItemCursor.decode(raw("PRICE|=2.5|41"));
+        assertEquals(41L, moved.getId());
+
+        // Cutting the token mid-way breaks its structure
+        assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(token.substring(0, token.length() - 3)));
+    }
+
+    private static String raw(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}